@@ -3,4 +3,9 @@ package m0ttii.com.github.abusesystem;
 public class AbuseSystemConstants {
 
     public static final String AbuseSystem_PREFIX = "§6§lDurchrasten: ";
+
+    public static final String AbuseSystem_PUNISHMENT_CHANNEL = "punish-punishment-object";
+    public static final int AbuseSystem_PIPELINE_SHARDS = 4;
+    public static final int AbuseSystem_PIPELINE_QUEUE_CAPACITY = 1024;
+    public static final int AbuseSystem_RECENT_PUNISHMENTS = 4096;
 }
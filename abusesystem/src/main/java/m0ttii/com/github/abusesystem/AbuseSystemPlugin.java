@@ -4,20 +4,48 @@ import co.aikar.commands.BungeeCommandManager;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.imaginarycode.minecraft.redisbungee.RedisBungee;
 import com.imaginarycode.minecraft.redisbungee.RedisBungeeAPI;
 import lombok.Getter;
 import lombok.Setter;
+import m0ttii.com.github.abusesystem.command.ImportCommand;
+import m0ttii.com.github.abusesystem.command.NotifyCommand;
 import m0ttii.com.github.abusesystem.command.PunishCommand;
+import m0ttii.com.github.abusesystem.command.PunishInfoCommand;
+import m0ttii.com.github.abusesystem.listener.ChatListener;
+import m0ttii.com.github.abusesystem.listener.LoginListener;
+import m0ttii.com.github.abusesystem.listener.NotifyListener;
+import m0ttii.com.github.abusesystem.listener.PubSubListener;
+import m0ttii.com.github.abusesystem.redis.PunishmentCodec;
+import m0ttii.com.github.abusesystem.redis.PunishmentEnforcer;
+import m0ttii.com.github.abusesystem.redis.PunishmentPipeline;
+import m0ttii.com.github.abusesystem.redis.RedisManager;
+import m0ttii.com.github.abusesystem.redis.StaffNotifySubscribers;
 import m0ttii.com.github.common.AbuseSystemCommon;
 import m0ttii.com.github.common.AbuseSystemConfig;
+import m0ttii.com.github.common.cache.MuteCache;
+import m0ttii.com.github.common.expiry.PunishmentExpiryScheduler;
+import m0ttii.com.github.common.importer.LegacyBanImporter;
+import m0ttii.com.github.common.provider.MongoPoolStatistics;
 import m0ttii.com.github.common.repository.*;
 import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.config.Configuration;
+import net.md_5.bungee.config.ConfigurationProvider;
+import net.md_5.bungee.config.YamlConfiguration;
 
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 @Getter
 @Setter
 public class AbuseSystemPlugin extends Plugin {
+    private static final int POINT_LEDGER_BATCH_SIZE = 500;
+    private static final int PUNISHMENT_MIGRATION_BATCH_SIZE = 1000;
+    private static final int USER_FLUSH_SECONDS = 5;
+
     @Getter
     public static AbuseSystemPlugin abuseSystemPlugin;
     @Getter
@@ -33,7 +61,26 @@ public class AbuseSystemPlugin extends Plugin {
     @Getter
     public static MessageRepository messageRepository;
     @Getter
+    public static UserWriteBuffer userWriteBuffer;
+    @Getter
+    public static MuteCache muteCache;
+    @Getter
+    public static LegacyBanImporter legacyBanImporter;
+    @Getter
     public static BungeeCommandManager commandManager;
+    @Getter
+    public static StaffNotifySubscribers staffNotifySubscribers;
+    @Getter
+    public static PunishmentCodec punishmentCodec;
+    @Getter
+    public static RedisManager redisManager;
+    @Getter
+    public static PunishmentEnforcer punishmentEnforcer;
+
+    private LoginListener loginListener;
+    private PunishmentPipeline punishmentPipeline;
+    private MongoPoolStatistics mongoPoolStatistics;
+    private RepositoryExecutor repositoryExecutor;
 
     @ Override
     public void onEnable(){
@@ -41,6 +88,7 @@ public class AbuseSystemPlugin extends Plugin {
         abuseSystemPlugin = this;
         commandManager = new BungeeCommandManager(this);
         AbuseSystemConfig abuseSystemConfig = new AbuseSystemConfig("localhost", 27017, "" , "", "test");
+        loadConfig(abuseSystemConfig);
         Injector injector = Guice.createInjector(new AbuseSystemCommon(abuseSystemConfig));
 
         this.userRepository = injector.getInstance(UserRepository.class);
@@ -48,19 +96,97 @@ public class AbuseSystemPlugin extends Plugin {
         this.templateRepository = injector.getInstance(TemplateRepository.class);
         this.pointRepository = injector.getInstance(PointRepository.class);
         this.messageRepository = injector.getInstance(MessageRepository.class);
+        this.userWriteBuffer = injector.getInstance(UserWriteBuffer.class);
+        this.muteCache = injector.getInstance(MuteCache.class);
+        this.legacyBanImporter = injector.getInstance(LegacyBanImporter.class);
+        injector.getInstance(PunishmentMigrator.class).migrate(PUNISHMENT_MIGRATION_BATCH_SIZE);
+        this.punishmentRepository.loadActivePunishments();
+        this.templateRepository.loadTemplates();
+        this.messageRepository.loadMessages();
+        this.userRepository.backfillLatestNameLower();
+        injector.getInstance(QueryPlanVerifier.class).verify();
+        this.mongoPoolStatistics = injector.getInstance(MongoPoolStatistics.class);
+        this.repositoryExecutor = injector.getInstance(RepositoryExecutor.class);
+        getLogger().info(this.mongoPoolStatistics.report());
+        this.staffNotifySubscribers = new StaffNotifySubscribers();
+        this.redisBungeeAPI = RedisBungee.getApi();
+        this.redisBungeeAPI.registerPubSubChannels(AbuseSystemConstants.AbuseSystem_PUNISHMENT_CHANNEL);
+        this.punishmentCodec = new PunishmentCodec(abuseSystemConfig.isLegacyJsonFrames());
+        this.redisManager = new RedisManager(this.punishmentCodec,
+                abuseSystemConfig.getBroadcastWindowMillis(), abuseSystemConfig.getBroadcastBatchSize());
+        this.punishmentEnforcer = new PunishmentEnforcer(AbuseSystemConstants.AbuseSystem_RECENT_PUNISHMENTS);
         getCommandManager().registerCommand(new PunishCommand());
+        getCommandManager().registerCommand(new NotifyCommand());
+        getCommandManager().registerCommand(new PunishInfoCommand());
+        getCommandManager().registerCommand(new ImportCommand());
+
+        this.loginListener = new LoginListener();
+        getProxy().getPluginManager().registerListener(this, this.loginListener);
+        getProxy().getPluginManager().registerListener(this, new NotifyListener());
+        getProxy().getPluginManager().registerListener(this, new ChatListener());
+        this.punishmentPipeline = new PunishmentPipeline(this.punishmentCodec, this.punishmentEnforcer,
+                AbuseSystemConstants.AbuseSystem_PIPELINE_SHARDS, AbuseSystemConstants.AbuseSystem_PIPELINE_QUEUE_CAPACITY);
+        getProxy().getPluginManager().registerListener(this, new PubSubListener(this.punishmentPipeline));
 
         registerTabCompletions();
         //new PunishCommand();
+
+        getProxy().getScheduler().schedule(this, this::compactPointLedger, 1, 1, TimeUnit.MINUTES);
+        getProxy().getScheduler().schedule(this, getUserWriteBuffer()::flush, USER_FLUSH_SECONDS, USER_FLUSH_SECONDS, TimeUnit.SECONDS);
+        PunishmentExpiryScheduler punishmentExpiryScheduler = injector.getInstance(PunishmentExpiryScheduler.class);
+        getProxy().getScheduler().schedule(this, punishmentExpiryScheduler::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Applies the optional config.yml in the plugin folder, so operators can change these settings without a rebuild.
+     */
+    private void loadConfig(AbuseSystemConfig abuseSystemConfig){
+        File file = new File(getDataFolder(), "config.yml");
+        if(!file.exists()){
+            return;
+        }
+        try {
+            Configuration configuration = ConfigurationProvider.getProvider(YamlConfiguration.class).load(file);
+            abuseSystemConfig.setLegacyJsonFrames(configuration.getBoolean("legacy-json-frames", abuseSystemConfig.isLegacyJsonFrames()));
+            abuseSystemConfig.setBroadcastWindowMillis(configuration.getLong("broadcast-window-millis", abuseSystemConfig.getBroadcastWindowMillis()));
+            abuseSystemConfig.setBroadcastBatchSize(configuration.getInt("broadcast-batch-size", abuseSystemConfig.getBroadcastBatchSize()));
+            abuseSystemConfig.setReadPreference(configuration.getString("read-preference", abuseSystemConfig.getReadPreference()));
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "Could not load " + file + ", using the defaults", e);
+        }
+    }
+
+    private void compactPointLedger(){
+        while(getPointRepository().compactExpiredPoints(POINT_LEDGER_BATCH_SIZE) == POINT_LEDGER_BATCH_SIZE){
+            // keep compacting until the last batch was not full
+        }
     }
 
     private void registerTabCompletions(){
         getCommandManager().getCommandCompletions().registerCompletion("reasons", c -> {
-            return getTemplateRepository().getAviableReasons();
+            return getTemplateRepository().getAviableReasons(c.getInput());
         });
     }
 
     public void onDisable(){
-
+        if(this.redisManager != null){
+            this.redisManager.flush();
+        }
+        if(this.loginListener != null){
+            this.loginListener.shutdown();
+        }
+        if(this.userWriteBuffer != null){
+            this.userWriteBuffer.flush();
+        }
+        if(this.punishmentPipeline != null){
+            this.punishmentPipeline.shutdown();
+            getLogger().info(this.punishmentPipeline.report());
+        }
+        if(this.repositoryExecutor != null){
+            this.repositoryExecutor.shutdown();
+        }
+        if(this.mongoPoolStatistics != null){
+            getLogger().info(this.mongoPoolStatistics.report());
+        }
     }
 }
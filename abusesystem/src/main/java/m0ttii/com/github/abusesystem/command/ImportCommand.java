@@ -0,0 +1,71 @@
+package m0ttii.com.github.abusesystem.command;
+
+import co.aikar.commands.BaseCommand;
+import co.aikar.commands.annotation.*;
+import m0ttii.com.github.abusesystem.AbuseSystemConstants;
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.importer.ImportResult;
+import m0ttii.com.github.common.importer.LegacyBanFormat;
+import m0ttii.com.github.common.importer.LegacyBanImporter;
+import net.md_5.bungee.api.CommandSender;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+@CommandAlias("punishimport")
+public class ImportCommand extends BaseCommand {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Set<Path> runningImports = ConcurrentHashMap.newKeySet();
+    private LegacyBanImporter legacyBanImporter;
+
+    public ImportCommand(){
+        legacyBanImporter = AbuseSystemPlugin.getLegacyBanImporter();
+    }
+
+    @Default
+    @CommandCompletion("@nothing json|flat")
+    @CommandPermission("abusesystem.import")
+    public void importBans(CommandSender commandSender, @Optional String fileName, @Optional String format){
+        if(fileName == null){
+            commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "/punishimport [file] [json|flat]");
+            return;
+        }
+        AbuseSystemPlugin plugin = AbuseSystemPlugin.getAbuseSystemPlugin();
+        Path dataFolder = plugin.getDataFolder().toPath().toAbsolutePath().normalize();
+        Path file = dataFolder.resolve(fileName).normalize();
+        if(!file.startsWith(dataFolder)){
+            commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Es können nur Dateien aus dem Plugin-Ordner importiert werden.");
+            return;
+        }
+        if(!Files.isRegularFile(file)){
+            commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Die Datei " + file + " existiert nicht.");
+            return;
+        }
+        LegacyBanFormat legacyBanFormat = "flat".equalsIgnoreCase(format) ? LegacyBanFormat.FLAT_FILE : LegacyBanFormat.VANILLA_JSON;
+        if(!runningImports.add(file)){
+            commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Der Import von " + fileName + " läuft bereits.");
+            return;
+        }
+
+        commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Import von " + fileName + " gestartet.");
+        plugin.getProxy().getScheduler().runAsync(plugin, () -> {
+            try {
+                ImportResult result = legacyBanImporter.importBans(file, legacyBanFormat, BATCH_SIZE,
+                        AbuseSystemPlugin.getRedisManager()::sendPunishmentToRedis);
+                commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Import abgeschlossen: "
+                        + result.getWritten() + " importiert, " + result.getSkipped() + " übersprungen.");
+            } catch (IOException | RuntimeException e) {
+                commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Import fehlgeschlagen, er kann mit demselben Befehl fortgesetzt werden.");
+                plugin.getLogger().log(Level.WARNING, "Could not import " + file, e);
+            } finally {
+                runningImports.remove(file);
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package m0ttii.com.github.abusesystem.command;
+
+import co.aikar.commands.BaseCommand;
+import co.aikar.commands.annotation.CommandAlias;
+import co.aikar.commands.annotation.CommandPermission;
+import co.aikar.commands.annotation.Default;
+import m0ttii.com.github.abusesystem.AbuseSystemConstants;
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.abusesystem.redis.StaffNotifySubscribers;
+import m0ttii.com.github.common.repository.UserRepository;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+import java.util.logging.Level;
+
+@CommandAlias("punishnotify")
+public class NotifyCommand extends BaseCommand {
+
+    private UserRepository userRepository;
+    private StaffNotifySubscribers staffNotifySubscribers;
+
+    public NotifyCommand(){
+        userRepository = AbuseSystemPlugin.getUserRepository();
+        staffNotifySubscribers = AbuseSystemPlugin.getStaffNotifySubscribers();
+    }
+
+    @Default
+    @CommandPermission(StaffNotifySubscribers.NOTIFY_PERMISSION)
+    public void toggleNotify(ProxiedPlayer player){
+        boolean notify = !staffNotifySubscribers.isSubscribed(player.getUniqueId());
+        if(notify){
+            staffNotifySubscribers.subscribe(player);
+            player.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Benachrichtigungen aktiviert.");
+        }else{
+            staffNotifySubscribers.unsubscribe(player.getUniqueId());
+            player.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Benachrichtigungen deaktiviert.");
+        }
+        userRepository.setNotifyAsync(player.getUniqueId(), notify)
+                .whenComplete((saved, throwable) -> {
+                    if(throwable == null && saved){
+                        return;
+                    }
+                    player.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Die Einstellung konnte nicht gespeichert werden und gilt nur bis zum nächsten Login.");
+                    if(throwable != null){
+                        AbuseSystemPlugin.getAbuseSystemPlugin().getLogger().log(Level.WARNING, "Could not save notify setting of " + player.getName(), throwable);
+                    }
+                });
+    }
+}
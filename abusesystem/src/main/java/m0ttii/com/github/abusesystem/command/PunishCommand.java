@@ -14,6 +14,10 @@ import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
 
 @CommandAlias("punish")
 public class PunishCommand extends BaseCommand {
@@ -39,13 +43,13 @@ public class PunishCommand extends BaseCommand {
     }
 
     @Subcommand("optional optional")
-    @CommandCompletion("@players @reason")
+    @CommandCompletion("@players @reasons")
     @CommandPermission("abusesystem.punish")
     public void punishPlayer(CommandSender commandSender, @Optional ProxiedPlayer proxiedPlayer, @Optional String reason) {
         ProxiedPlayer punisher = (ProxiedPlayer) commandSender;
 
-        if(userRepository.findByUniqueId(proxiedPlayer.getUniqueId()) == null){
-            commandSender.sendMessage("Dieser Spieler existiert nicht.");
+        if(proxiedPlayer == null || reason == null){
+            defaultMessage(commandSender);
             return;
         }
 
@@ -54,29 +58,53 @@ public class PunishCommand extends BaseCommand {
             return;
         }
 
-        if(!(templateRepository.getAviableReasons().contains(reason))){
+        if(!templateRepository.isAviableReason(reason)){
             commandSender.sendMessage("Dieser Grund existiert nicht.");
             return;
         }
 
-        if(punishmentRepository.getPunishmentByPlayerUUID(proxiedPlayer.getUniqueId())
-                .getType()
-                .equals(AbuseSystemType.BAN)){
+        UUID player_uuid = proxiedPlayer.getUniqueId();
+        if(punishmentRepository.getActiveBan(player_uuid) != null){
             commandSender.sendMessage("Dieser Spieler ist bereits gebannt.");
             return;
         }
+        boolean muted = punishmentRepository.getActiveMute(player_uuid) != null;
 
-        if(punishmentRepository.getPunishmentByPlayerUUID(proxiedPlayer.getUniqueId())
-                .getType()
-                .equals(AbuseSystemType.MUTE)){
-            if(templateRepository.getTemplateByPlayerPoints(reason, pointRepository.getPoints(proxiedPlayer.getUniqueId(), reason))
-                    .getType()
-                    .equals(AbuseSystemType.MUTE)){
-                commandSender.sendMessage("Dieser Spieler ist bereits gemuted.");
-                return;
-            }
-        }
-        punishmentRepository.createPunishment(proxiedPlayer.getUniqueId(), punisher.getUniqueId(), reason);
-
+        userRepository.findByUniqueIdAsync(player_uuid)
+                .thenApply(user -> {
+                    if(user == null && !AbuseSystemPlugin.getUserWriteBuffer().isKnown(player_uuid)){
+                        commandSender.sendMessage("Dieser Spieler existiert nicht.");
+                        return false;
+                    }
+                    return true;
+                })
+                .thenCompose(valid -> {
+                    if(!valid || !muted){
+                        return CompletableFuture.completedFuture(valid);
+                    }
+                    return pointRepository.getPointsAsync(player_uuid, reason)
+                            .thenCompose(points -> templateRepository.getTemplateByPlayerPointsAsync(reason, points))
+                            .thenApply(layer -> {
+                                if(layer.getType().equals(AbuseSystemType.MUTE)){
+                                    commandSender.sendMessage("Dieser Spieler ist bereits gemuted.");
+                                    return false;
+                                }
+                                return true;
+                            });
+                })
+                .thenCompose(valid -> valid
+                        ? punishmentRepository.createPunishmentAsync(player_uuid, punisher.getUniqueId(), reason)
+                        : CompletableFuture.completedFuture(null))
+                .thenAccept(punishment -> {
+                    if(punishment != null){
+                        AbuseSystemPlugin.getPunishmentEnforcer().enforceLocally(punishment);
+                        AbuseSystemPlugin.getRedisManager().sendPunishmentToRedis(punishment);
+                    }
+                })
+                .exceptionally(throwable -> {
+                    commandSender.sendMessage("Die Bestrafung konnte nicht ausgeführt werden.");
+                    AbuseSystemPlugin.getAbuseSystemPlugin().getLogger().log(Level.WARNING, "Could not punish " + proxiedPlayer.getName(), throwable);
+                    return null;
+                });
     }
 }
@@ -0,0 +1,107 @@
+package m0ttii.com.github.abusesystem.command;
+
+import co.aikar.commands.BaseCommand;
+import co.aikar.commands.annotation.*;
+import m0ttii.com.github.abusesystem.AbuseSystemConstants;
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.message.MessageTemplate;
+import m0ttii.com.github.common.repository.PunishmentHistoryPage;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import m0ttii.com.github.common.repository.UserRepository;
+import net.md_5.bungee.api.CommandSender;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+@CommandAlias("pinfo")
+public class PunishInfoCommand extends BaseCommand {
+
+    private static final int PAGE_SIZE = 10;
+
+    private UserRepository userRepository;
+    private PunishmentRepository punishmentRepository;
+    private final Map<String, NextPage> nextPages = new ConcurrentHashMap<>();
+
+    public PunishInfoCommand(){
+        userRepository = AbuseSystemPlugin.getUserRepository();
+        punishmentRepository = AbuseSystemPlugin.getPunishmentRepository();
+    }
+
+    @Default
+    @CommandCompletion("@players")
+    @CommandPermission("abusesystem.punish")
+    public void showHistory(CommandSender commandSender, @Optional String name){
+        if(name == null){
+            commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "/pinfo [player]");
+            return;
+        }
+        userRepository.findByLatestNameAsync(name)
+                .thenCompose(user -> {
+                    if(user == null){
+                        commandSender.sendMessage("Dieser Spieler existiert nicht.");
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Strafen von " + user.getLatestName() + ":");
+                    return showPage(commandSender, user.getUuid(), null);
+                })
+                .exceptionally(throwable -> fail(commandSender, name, throwable));
+    }
+
+    @Subcommand("next")
+    @CommandPermission("abusesystem.punish")
+    public void showNextPage(CommandSender commandSender){
+        NextPage nextPage = nextPages.get(commandSender.getName());
+        if(nextPage == null){
+            commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Keine weiteren Strafen.");
+            return;
+        }
+        showPage(commandSender, nextPage.player_uuid, nextPage.cursor)
+                .exceptionally(throwable -> fail(commandSender, nextPage.player_uuid.toString(), throwable));
+    }
+
+    private CompletableFuture<Void> showPage(CommandSender commandSender, UUID player_uuid, PunishmentHistoryPage.Cursor after){
+        return punishmentRepository.getPunishmentHistoryAsync(player_uuid, after, PAGE_SIZE)
+                .thenAccept(page -> {
+                    if(after == null && page.getPunishments().isEmpty()){
+                        commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "Keine Strafen vorhanden.");
+                    }
+                    for(AbuseSystemPunishment punishment : page.getPunishments()){
+                        commandSender.sendMessage(format(punishment));
+                    }
+                    if(page.getNext() == null){
+                        nextPages.remove(commandSender.getName());
+                    }else{
+                        nextPages.put(commandSender.getName(), new NextPage(player_uuid, page.getNext()));
+                        commandSender.sendMessage(AbuseSystemConstants.AbuseSystem_PREFIX + "/pinfo next");
+                    }
+                });
+    }
+
+    private static String format(AbuseSystemPunishment punishment){
+        return "§7" + MessageTemplate.formatDate(punishment.getCreatedAt())
+                + " §e" + punishment.getType()
+                + " §7" + punishment.getReason()
+                + " §8(" + punishment.getPunisher_name() + ")"
+                + (punishment.isActive() ? " §cbis " + MessageTemplate.formatDate(punishment.getExpire_at()) : "");
+    }
+
+    private static Void fail(CommandSender commandSender, String name, Throwable throwable){
+        commandSender.sendMessage("Die Strafen konnten nicht geladen werden.");
+        AbuseSystemPlugin.getAbuseSystemPlugin().getLogger().log(Level.WARNING, "Could not load punishments of " + name, throwable);
+        return null;
+    }
+
+    private static final class NextPage {
+        private final UUID player_uuid;
+        private final PunishmentHistoryPage.Cursor cursor;
+
+        private NextPage(UUID player_uuid, PunishmentHistoryPage.Cursor cursor){
+            this.player_uuid = player_uuid;
+            this.cursor = cursor;
+        }
+    }
+}
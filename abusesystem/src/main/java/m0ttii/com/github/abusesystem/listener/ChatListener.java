@@ -0,0 +1,64 @@
+package m0ttii.com.github.abusesystem.listener;
+
+import m0ttii.com.github.abusesystem.AbuseSystemConstants;
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.cache.MuteCache;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.message.MessageTemplate;
+import m0ttii.com.github.common.repository.MessageRepository;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.ChatEvent;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+public class ChatListener implements Listener {
+
+    private MuteCache muteCache;
+    private PunishmentRepository punishmentRepository;
+    private MessageRepository messageRepository;
+
+    public ChatListener(){
+        muteCache = AbuseSystemPlugin.getMuteCache();
+        punishmentRepository = AbuseSystemPlugin.getPunishmentRepository();
+        messageRepository = AbuseSystemPlugin.getMessageRepository();
+    }
+
+    @EventHandler
+    public void onPostLogin(PostLoginEvent event){
+        muteCache.put(punishmentRepository.getActiveMute(event.getPlayer().getUniqueId()));
+    }
+
+    @EventHandler
+    public void onDisconnect(PlayerDisconnectEvent event){
+        muteCache.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onChat(ChatEvent event){
+        if(event.isCancelled() || event.isCommand() || !(event.getSender() instanceof ProxiedPlayer)){
+            return;
+        }
+        ProxiedPlayer player = (ProxiedPlayer) event.getSender();
+        if(!muteCache.isMuted(player.getUniqueId(), System.currentTimeMillis())){
+            return;
+        }
+        event.setCancelled(true);
+        player.sendMessage(getMuteMessage(player));
+    }
+
+    private String getMuteMessage(ProxiedPlayer player){
+        AbuseSystemPunishment punishment = punishmentRepository.getActiveMute(player.getUniqueId());
+        MessageTemplate template = messageRepository.getTemplate("player-mute-chat");
+        if(punishment == null || template == null){
+            return AbuseSystemConstants.AbuseSystem_PREFIX + "Du bist gemuted.";
+        }
+        return template.render(
+                player.getName(),
+                punishment.getReason(),
+                punishment.getPunisher_name(),
+                MessageTemplate.formatDate(punishment.getExpire_at()));
+    }
+}
@@ -0,0 +1,84 @@
+package m0ttii.com.github.abusesystem.listener;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import m0ttii.com.github.abusesystem.AbuseSystemConstants;
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.message.MessageTemplate;
+import m0ttii.com.github.common.repository.MessageRepository;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import m0ttii.com.github.common.repository.UserWriteBuffer;
+import net.md_5.bungee.api.connection.PendingConnection;
+import net.md_5.bungee.api.event.LoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+public class LoginListener implements Listener {
+
+    private static final int LOGIN_THREADS = 4;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(LOGIN_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("AbuseSystem Login #%d").setDaemon(true).build());
+
+    private MessageRepository messageRepository;
+    private PunishmentRepository punishmentRepository;
+    private UserWriteBuffer userWriteBuffer;
+
+    public LoginListener(){
+        messageRepository = AbuseSystemPlugin.getMessageRepository();
+        punishmentRepository = AbuseSystemPlugin.getPunishmentRepository();
+        userWriteBuffer = AbuseSystemPlugin.getUserWriteBuffer();
+    }
+
+    @EventHandler
+    public void onLogin(LoginEvent event){
+        if(event.isCancelled()){
+            return;
+        }
+        AbuseSystemPlugin plugin = AbuseSystemPlugin.getAbuseSystemPlugin();
+        PendingConnection connection = event.getConnection();
+
+        event.registerIntent(plugin);
+        CompletableFuture.supplyAsync(() -> resolveBanMessage(connection), executor)
+                .whenComplete((message, throwable) -> {
+                    if(throwable != null){
+                        // never let a player in whose bans could not be checked
+                        plugin.getLogger().log(Level.WARNING, "Could not check punishments of " + connection.getName(), throwable);
+                        event.setCancelled(true);
+                        event.setCancelReason(AbuseSystemConstants.AbuseSystem_PREFIX + "Bitte versuche es in einem Moment erneut.");
+                    }else if(message != null){
+                        event.setCancelled(true);
+                        event.setCancelReason(message);
+                    }
+                    event.completeIntent(plugin);
+                });
+    }
+
+    public void shutdown(){
+        executor.shutdown();
+    }
+
+    private String resolveBanMessage(PendingConnection connection){
+        userWriteBuffer.record(connection.getUniqueId(), connection.getName());
+
+        AbuseSystemPunishment punishment = punishmentRepository.getActiveBan(connection.getUniqueId());
+        if(punishment == null){
+            return null;
+        }
+        MessageTemplate template = messageRepository.getTemplate("player-ban-connect-cancel");
+        if(template == null){
+            return AbuseSystemConstants.AbuseSystem_PREFIX + "Du bist gebannt. Grund: " + punishment.getReason()
+                    + " Bis: " + MessageTemplate.formatDate(punishment.getExpire_at());
+        }
+        return template.render(
+                connection.getName(),
+                punishment.getReason(),
+                punishment.getPunisher_name(),
+                MessageTemplate.formatDate(punishment.getExpire_at()));
+    }
+}
@@ -0,0 +1,46 @@
+package m0ttii.com.github.abusesystem.listener;
+
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.abusesystem.redis.StaffNotifySubscribers;
+import m0ttii.com.github.common.repository.UserRepository;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+import java.util.logging.Level;
+
+public class NotifyListener implements Listener {
+
+    private UserRepository userRepository;
+    private StaffNotifySubscribers staffNotifySubscribers;
+
+    public NotifyListener(){
+        userRepository = AbuseSystemPlugin.getUserRepository();
+        staffNotifySubscribers = AbuseSystemPlugin.getStaffNotifySubscribers();
+    }
+
+    @EventHandler
+    public void onPostLogin(PostLoginEvent event){
+        ProxiedPlayer player = event.getPlayer();
+        if(!player.hasPermission(StaffNotifySubscribers.NOTIFY_PERMISSION)){
+            return;
+        }
+        userRepository.findByUniqueIdAsync(player.getUniqueId())
+                .thenAccept(user -> {
+                    if(user != null && user.isNotify() && player.isConnected()){
+                        staffNotifySubscribers.subscribe(player);
+                    }
+                })
+                .exceptionally(throwable -> {
+                    AbuseSystemPlugin.getAbuseSystemPlugin().getLogger().log(Level.WARNING, "Could not load notify setting of " + player.getName(), throwable);
+                    return null;
+                });
+    }
+
+    @EventHandler
+    public void onDisconnect(PlayerDisconnectEvent event){
+        staffNotifySubscribers.unsubscribe(event.getPlayer().getUniqueId());
+    }
+}
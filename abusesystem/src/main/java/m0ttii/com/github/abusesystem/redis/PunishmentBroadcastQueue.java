@@ -0,0 +1,82 @@
+package m0ttii.com.github.abusesystem.redis;
+
+import m0ttii.com.github.abusesystem.AbuseSystemConstants;
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces outgoing punishment broadcasts. Punishments are collected for at most {@code windowMillis}
+ * or until {@code maxBatchSize} are pending and then published as a single batch frame.
+ */
+public class PunishmentBroadcastQueue {
+
+    private final PunishmentCodec punishmentCodec;
+    private final long windowMillis;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private List<AbuseSystemPunishment> pending = new ArrayList<>();
+    private boolean flushScheduled;
+
+    public PunishmentBroadcastQueue(PunishmentCodec punishmentCodec, long windowMillis, int maxBatchSize) {
+        this.punishmentCodec = punishmentCodec;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.min(maxBatchSize, PunishmentCodec.MAX_BATCH_SIZE);
+    }
+
+    public void enqueue(AbuseSystemPunishment punishment) {
+        List<AbuseSystemPunishment> full = null;
+        boolean scheduleFlush = false;
+        synchronized (lock) {
+            pending.add(punishment);
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+        if (full != null) {
+            publish(full);
+        } else if (scheduleFlush) {
+            AbuseSystemPlugin plugin = AbuseSystemPlugin.getAbuseSystemPlugin();
+            plugin.getProxy().getScheduler().schedule(plugin, this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void flush() {
+        List<AbuseSystemPunishment> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            batch = drain();
+        }
+        publish(batch);
+    }
+
+    private List<AbuseSystemPunishment> drain() {
+        List<AbuseSystemPunishment> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void publish(List<AbuseSystemPunishment> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (punishmentCodec.isLegacyJson()) {
+            batch.forEach(punishment -> send(punishmentCodec.encode(punishment)));
+        } else if (batch.size() == 1) {
+            send(punishmentCodec.encode(batch.get(0)));
+        } else {
+            send(punishmentCodec.encodeBatch(batch));
+        }
+    }
+
+    private static void send(String message) {
+        AbuseSystemPlugin.getRedisBungeeAPI().sendChannelMessage(AbuseSystemConstants.AbuseSystem_PUNISHMENT_CHANNEL, message);
+    }
+}
@@ -0,0 +1,269 @@
+package m0ttii.com.github.abusesystem.redis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import org.bson.types.ObjectId;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wire format of punishment events sent between the proxies.
+ *
+ * <p>Version 1 is a Base64 encoded binary frame: the version byte, a flag byte, the punishment id as 12 bytes,
+ * player and punisher UUIDs as two longs each, the type ordinal as a byte, the expiry as epoch millis
+ * and the reason and names as length prefixed UTF-8. Strings longer than {@link #MAX_STRING_BYTES}
+ * are cut at a character boundary, because the length prefix is a signed short with -1 marking null.</p>
+ *
+ * <p>Version 2 is a batch frame: the version byte, the number of punishments as a short and
+ * every punishment encoded like in version 1, without the version byte.</p>
+ *
+ * <p>Proxies running an older version only understand the JSON punishment object, so {@link #decode(String)}
+ * also accepts it and the encoder can be switched to JSON until the whole cluster is updated.</p>
+ */
+public class PunishmentCodec {
+
+    public static final byte VERSION = 1;
+    public static final byte BATCH_VERSION = 2;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_PUNISHER = 1 << 1;
+    private static final int ACTIVE = 1 << 2;
+    private static final long PERMANENT = -1L;
+    public static final int MAX_BATCH_SIZE = 0xFFFF;
+    public static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+    private static final AbuseSystemType[] TYPES = AbuseSystemType.values();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final boolean legacyJson;
+    private final ThreadLocal<Encoder> encoders = ThreadLocal.withInitial(Encoder::new);
+
+    public PunishmentCodec(boolean legacyJson) {
+        this.legacyJson = legacyJson;
+    }
+
+    public String encode(AbuseSystemPunishment punishment) {
+        return legacyJson ? encodeJson(punishment) : encoders.get().encode(punishment);
+    }
+
+    /**
+     * Encodes the punishments into a single batch frame. In legacy JSON mode batches are not supported,
+     * the caller has to send every punishment on its own then.
+     */
+    public String encodeBatch(List<AbuseSystemPunishment> punishments) {
+        if (legacyJson) {
+            throw new IllegalStateException("Batch frames are not supported in legacy JSON mode");
+        }
+        return encoders.get().encodeBatch(punishments);
+    }
+
+    public boolean isLegacyJson() {
+        return legacyJson;
+    }
+
+    public AbuseSystemPunishment decode(String message) {
+        List<AbuseSystemPunishment> punishments = decodeAll(message);
+        if (punishments.size() != 1) {
+            throw new IllegalArgumentException("Expected a single punishment but got " + punishments.size());
+        }
+        return punishments.get(0);
+    }
+
+    /**
+     * Decodes a single punishment frame, a batch frame or a legacy JSON punishment.
+     */
+    public List<AbuseSystemPunishment> decodeAll(String message) {
+        if (message.startsWith("{")) {
+            return Collections.singletonList(decodeJson(message));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(message));
+        byte version = buffer.get();
+        if (version == VERSION) {
+            return Collections.singletonList(read(buffer));
+        }
+        if (version == BATCH_VERSION) {
+            int count = buffer.getShort() & 0xFFFF;
+            List<AbuseSystemPunishment> punishments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                punishments.add(read(buffer));
+            }
+            return punishments;
+        }
+        throw new IllegalArgumentException("Unsupported punishment frame version " + version);
+    }
+
+    static AbuseSystemPunishment read(ByteBuffer buffer) {
+        AbuseSystemPunishment punishment = new AbuseSystemPunishment();
+        int flags = buffer.get();
+        if ((flags & HAS_ID) != 0) {
+            byte[] id = new byte[12];
+            buffer.get(id);
+            punishment.setId(new ObjectId(id));
+        }
+        punishment.setPlayer_uuid(new UUID(buffer.getLong(), buffer.getLong()));
+        if ((flags & HAS_PUNISHER) != 0) {
+            punishment.setPunisher_uuid(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        punishment.setActive((flags & ACTIVE) != 0);
+        punishment.setType(TYPES[buffer.get()]);
+        long expireAt = buffer.getLong();
+        punishment.setExpire_at(expireAt == PERMANENT ? null : new Date(expireAt));
+        punishment.setReason(readString(buffer));
+        punishment.setPlayer_name(readString(buffer));
+        punishment.setPunisher_name(readString(buffer));
+        return punishment;
+    }
+
+    static void write(DataOutputStream out, AbuseSystemPunishment punishment) throws IOException {
+        int flags = (punishment.getId() != null ? HAS_ID : 0)
+                | (punishment.getPunisher_uuid() != null ? HAS_PUNISHER : 0)
+                | (punishment.isActive() ? ACTIVE : 0);
+        out.writeByte(flags);
+        if (punishment.getId() != null) {
+            out.write(punishment.getId().toByteArray());
+        }
+        out.writeLong(punishment.getPlayer_uuid().getMostSignificantBits());
+        out.writeLong(punishment.getPlayer_uuid().getLeastSignificantBits());
+        if (punishment.getPunisher_uuid() != null) {
+            out.writeLong(punishment.getPunisher_uuid().getMostSignificantBits());
+            out.writeLong(punishment.getPunisher_uuid().getLeastSignificantBits());
+        }
+        out.writeByte(punishment.getType().ordinal());
+        out.writeLong(punishment.getExpire_at() == null ? PERMANENT : punishment.getExpire_at().getTime());
+        writeString(out, punishment.getReason());
+        writeString(out, punishment.getPlayer_name());
+        writeString(out, punishment.getPunisher_name());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > MAX_STRING_BYTES) {
+            length = MAX_STRING_BYTES;
+            // do not split a multi-byte character, continuation bytes start with 10xxxxxx
+            while ((bytes[length] & 0xC0) == 0x80) {
+                length--;
+            }
+        }
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Writes the punishment in the shape older versions serialised it, with the users nested as player_id and punisher_id.
+     */
+    private static String encodeJson(AbuseSystemPunishment punishment) {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        node.putObject("player_id")
+                .put("uuid", punishment.getPlayer_uuid().toString())
+                .put("latestName", punishment.getPlayer_name());
+        if (punishment.getPunisher_uuid() != null) {
+            node.putObject("punisher_id")
+                    .put("uuid", punishment.getPunisher_uuid().toString())
+                    .put("latestName", punishment.getPunisher_name());
+        }
+        node.put("type", punishment.getType().name());
+        node.put("reason", punishment.getReason());
+        node.put("evidence", punishment.getEvidence());
+        if (punishment.getExpire_at() != null) {
+            node.put("expire_at", punishment.getExpire_at().getTime());
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static AbuseSystemPunishment decodeJson(String message) {
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AbuseSystemPunishment punishment = new AbuseSystemPunishment();
+        punishment.setPlayer_uuid(uuid(node, "player_uuid", "player_id"));
+        punishment.setPlayer_name(name(node, "player_name", "player_id"));
+        punishment.setPunisher_uuid(uuid(node, "punisher_uuid", "punisher_id"));
+        punishment.setPunisher_name(name(node, "punisher_name", "punisher_id"));
+        punishment.setType(AbuseSystemType.valueOf(node.path("type").asText()));
+        punishment.setReason(node.path("reason").asText(null));
+        punishment.setEvidence(node.path("evidence").asText(null));
+        punishment.setActive(node.path("active").asBoolean(true));
+        punishment.setExpire_at(node.hasNonNull("expire_at") ? new Date(node.get("expire_at").asLong()) : null);
+        return punishment;
+    }
+
+    private static UUID uuid(JsonNode node, String field, String legacyUser) {
+        String value = node.hasNonNull(field) ? node.get(field).asText() : node.path(legacyUser).path("uuid").asText(null);
+        return value == null ? null : UUID.fromString(value);
+    }
+
+    private static String name(JsonNode node, String field, String legacyUser) {
+        return node.hasNonNull(field) ? node.get(field).asText() : node.path(legacyUser).path("latestName").asText(null);
+    }
+
+    /**
+     * Per-thread reusable output buffer, so encoding only allocates the resulting frame.
+     */
+    private static final class Encoder {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private String encode(AbuseSystemPunishment punishment) {
+            bytes.reset();
+            try {
+                out.writeByte(VERSION);
+                write(out, punishment);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Base64.getEncoder().encodeToString(bytes.toByteArray());
+        }
+
+        private String encodeBatch(List<AbuseSystemPunishment> punishments) {
+            if (punishments.size() > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("A batch frame holds at most " + MAX_BATCH_SIZE + " punishments");
+            }
+            bytes.reset();
+            try {
+                out.writeByte(BATCH_VERSION);
+                out.writeShort(punishments.size());
+                for (AbuseSystemPunishment punishment : punishments) {
+                    write(out, punishment);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Base64.getEncoder().encodeToString(bytes.toByteArray());
+        }
+    }
+}
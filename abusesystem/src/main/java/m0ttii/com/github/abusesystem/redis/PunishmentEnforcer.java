@@ -0,0 +1,104 @@
+package m0ttii.com.github.abusesystem.redis;
+
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import m0ttii.com.github.common.message.MessageTemplate;
+import m0ttii.com.github.common.repository.MessageRepository;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+/**
+ * Applies a punishment to a player connected to this proxy. Split into a resolve step, which looks up
+ * the player and renders the message, and a deliver step, which kicks or messages the player.
+ */
+public class PunishmentEnforcer {
+
+    private final MessageRepository messageRepository;
+    private final RecentPunishments recentPunishments;
+
+    public PunishmentEnforcer(int recentCapacity){
+        this.messageRepository = AbuseSystemPlugin.getMessageRepository();
+        this.recentPunishments = new RecentPunishments(recentCapacity);
+    }
+
+    /**
+     * Enforces a punishment created on this proxy right away if the player is connected here.
+     * The punishment is remembered, so its channel message is ignored when it comes back from Redis.
+     */
+    public void enforceLocally(AbuseSystemPunishment abuseSystemPunishment){
+        markApplied(abuseSystemPunishment);
+        Delivery delivery = resolve(abuseSystemPunishment);
+        if(delivery != null){
+            deliver(delivery);
+        }
+    }
+
+    /**
+     * @return false if the punishment was already applied on this proxy
+     */
+    public boolean markApplied(AbuseSystemPunishment abuseSystemPunishment){
+        return abuseSystemPunishment.getId() == null || recentPunishments.markSeen(abuseSystemPunishment.getId());
+    }
+
+    /**
+     * Forgets a punishment marked by {@link #markApplied} whose delivery was not accepted,
+     * so a later message for the same punishment is delivered again.
+     */
+    public void unmarkApplied(AbuseSystemPunishment abuseSystemPunishment){
+        if(abuseSystemPunishment.getId() != null){
+            recentPunishments.unmark(abuseSystemPunishment.getId());
+        }
+    }
+
+    /**
+     * @return the delivery for the punishment or null if the player is not connected to this proxy
+     */
+    public Delivery resolve(AbuseSystemPunishment abuseSystemPunishment){
+        ProxiedPlayer player = ProxyServer.getInstance().getPlayer(abuseSystemPunishment.getPlayer_uuid());
+        if(player == null || !player.isConnected()){
+            return null;
+        }
+        MessageTemplate template = messageRepository.getTemplate(getMessageName(abuseSystemPunishment.getType()));
+        String message = template == null ? abuseSystemPunishment.getReason() : template.render(
+                player.getName(),
+                abuseSystemPunishment.getReason(),
+                abuseSystemPunishment.getPunisher_name(),
+                MessageTemplate.formatDate(abuseSystemPunishment.getExpire_at()));
+        return new Delivery(abuseSystemPunishment, player, message);
+    }
+
+    public void deliver(Delivery delivery){
+        AbuseSystemType type = delivery.punishment.getType();
+        if(type.equals(AbuseSystemType.MUTE)){
+            AbuseSystemPlugin.getMuteCache().put(delivery.punishment);
+            delivery.player.sendMessage(delivery.message);
+        } else {
+            delivery.player.disconnect(delivery.message);
+        }
+        new Notify(delivery.punishment).notifyPunishment(type);
+    }
+
+    private static String getMessageName(AbuseSystemType abuseSystemType){
+        switch (abuseSystemType){
+            case BAN:
+                return "player-ban-kick";
+            case MUTE:
+                return "player-mute-mute";
+            default:
+                return "player-kick-kick";
+        }
+    }
+
+    public static final class Delivery {
+        private final AbuseSystemPunishment punishment;
+        private final ProxiedPlayer player;
+        private final String message;
+
+        private Delivery(AbuseSystemPunishment punishment, ProxiedPlayer player, String message){
+            this.punishment = punishment;
+            this.player = player;
+            this.message = message;
+        }
+    }
+}
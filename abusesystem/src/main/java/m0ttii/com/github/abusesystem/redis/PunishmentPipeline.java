@@ -0,0 +1,197 @@
+package m0ttii.com.github.abusesystem.redis;
+
+import m0ttii.com.github.abusesystem.AbuseSystemPlugin;
+import m0ttii.com.github.common.cache.MuteCache;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import net.md_5.bungee.api.ProxyServer;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Processes incoming punishment messages off the RedisBungee thread in three stages:
+ * decode and register in the punishment cache on a single thread, then resolve and deliver
+ * on a shard picked by the player UUID, so punishments of one player keep their order while
+ * different players run in parallel. All queues are bounded and the calling thread never does the work itself.
+ * A message which does not fit into the decode queue is handed to a separate register stage, which only
+ * updates the punishment and mute caches, so load shedding skips the kick or notify delivery first.
+ * Only if that queue is full as well the message is lost, which is counted as unregistered.
+ */
+public class PunishmentPipeline {
+
+    private static final Logger LOGGER = Logger.getLogger(PunishmentPipeline.class.getName());
+
+    private final PunishmentCodec punishmentCodec;
+    private final PunishmentEnforcer punishmentEnforcer;
+    private final PunishmentRepository punishmentRepository;
+    private final MuteCache muteCache;
+    private final ThreadPoolExecutor decoder;
+    private final ThreadPoolExecutor registrar;
+    private final ThreadPoolExecutor[] shards;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong unregistered = new AtomicLong();
+
+    public PunishmentPipeline(PunishmentCodec punishmentCodec, PunishmentEnforcer punishmentEnforcer, int shardCount, int queueCapacity){
+        this.punishmentCodec = punishmentCodec;
+        this.punishmentEnforcer = punishmentEnforcer;
+        this.punishmentRepository = AbuseSystemPlugin.getPunishmentRepository();
+        this.muteCache = AbuseSystemPlugin.getMuteCache();
+        this.decoder = newStage("decode", queueCapacity);
+        this.registrar = newStage("register", queueCapacity);
+        this.shards = new ThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = newStage("shard-" + i, queueCapacity);
+        }
+    }
+
+    /**
+     * Hands a raw channel message to the decode stage, or to the register stage without delivery
+     * if the decode queue is full. Never blocks the calling thread.
+     */
+    public void submit(String message){
+        received.incrementAndGet();
+        try {
+            decoder.execute(() -> decode(message));
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            try {
+                registrar.execute(() -> register(message));
+            } catch (RejectedExecutionException registerRejected) {
+                unregistered.incrementAndGet();
+            }
+        }
+    }
+
+    private void register(String message){
+        for (AbuseSystemPunishment punishment : decodeSafely(message)) {
+            registerSafely(punishment);
+        }
+    }
+
+    private void decode(String message){
+        for (AbuseSystemPunishment punishment : decodeSafely(message)) {
+            if(!punishmentEnforcer.markApplied(punishment)){
+                duplicates.incrementAndGet();
+                continue;
+            }
+            registerSafely(punishment);
+            ThreadPoolExecutor shard = shards[(punishment.getPlayer_uuid().hashCode() & Integer.MAX_VALUE) % shards.length];
+            try {
+                shard.execute(() -> apply(punishment));
+            } catch (RejectedExecutionException e) {
+                overflowed.incrementAndGet();
+                punishmentEnforcer.unmarkApplied(punishment);
+            }
+        }
+    }
+
+    private void registerSafely(AbuseSystemPunishment punishment){
+        try {
+            punishmentRepository.registerPunishment(punishment);
+            if(ProxyServer.getInstance().getPlayer(punishment.getPlayer_uuid()) != null){
+                muteCache.put(punishment);
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.WARNING, "Could not register punishment for " + punishment.getPlayer_uuid(), e);
+        }
+    }
+
+    private Iterable<AbuseSystemPunishment> decodeSafely(String message){
+        try {
+            return punishmentCodec.decodeAll(message);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.WARNING, "Could not decode punishment message", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void apply(AbuseSystemPunishment punishment){
+        try {
+            PunishmentEnforcer.Delivery delivery = punishmentEnforcer.resolve(punishment);
+            if(delivery != null){
+                punishmentEnforcer.deliver(delivery);
+                delivered.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.WARNING, "Could not apply punishment for " + punishment.getPlayer_uuid(), e);
+        }
+    }
+
+    public long getReceived(){
+        return received.get();
+    }
+
+    public long getDropped(){
+        return dropped.get();
+    }
+
+    public long getOverflowed(){
+        return overflowed.get();
+    }
+
+    public long getFailed(){
+        return failed.get();
+    }
+
+    public long getDelivered(){
+        return delivered.get();
+    }
+
+    public long getDuplicates(){
+        return duplicates.get();
+    }
+
+    public long getUnregistered(){
+        return unregistered.get();
+    }
+
+    public String report(){
+        return "Punishment pipeline: received=" + received.get()
+                + " delivered=" + delivered.get()
+                + " duplicates=" + duplicates.get()
+                + " dropped=" + dropped.get()
+                + " overflowed=" + overflowed.get()
+                + " unregistered=" + unregistered.get()
+                + " failed=" + failed.get();
+    }
+
+    public void shutdown(){
+        decoder.shutdown();
+        registrar.shutdown();
+        try {
+            decoder.awaitTermination(5, TimeUnit.SECONDS);
+            registrar.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    private static ThreadPoolExecutor newStage(String name, int queueCapacity){
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "abusesystem-pubsub-" + name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,35 @@
+package m0ttii.com.github.abusesystem.redis;
+
+import org.bson.types.ObjectId;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded set of the punishment ids this proxy already applied, used to drop the channel
+ * message of a punishment which was enforced locally before it came back from Redis.
+ */
+public class RecentPunishments {
+
+    private final Map<ObjectId, Boolean> seen;
+
+    public RecentPunishments(int capacity){
+        this.seen = new LinkedHashMap<ObjectId, Boolean>(capacity * 4 / 3 + 1, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectId, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return true if the id was not seen before
+     */
+    public synchronized boolean markSeen(ObjectId id){
+        return seen.put(id, Boolean.TRUE) == null;
+    }
+
+    public synchronized void unmark(ObjectId id){
+        seen.remove(id);
+    }
+}
@@ -0,0 +1,42 @@
+package m0ttii.com.github.abusesystem.redis;
+
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online staff members on this proxy that have punishment notifications enabled.
+ */
+public class StaffNotifySubscribers {
+
+    public static final String NOTIFY_PERMISSION = "punish.notify";
+
+    private final Map<UUID, ProxiedPlayer> subscribers = new ConcurrentHashMap<>();
+
+    public void subscribe(ProxiedPlayer player){
+        if(player.hasPermission(NOTIFY_PERMISSION)){
+            subscribers.put(player.getUniqueId(), player);
+        }
+    }
+
+    public void unsubscribe(UUID uuid){
+        subscribers.remove(uuid);
+    }
+
+    public boolean isSubscribed(UUID uuid){
+        return subscribers.containsKey(uuid);
+    }
+
+    public void broadcast(String message){
+        for (ProxiedPlayer player : subscribers.values()) {
+            player.sendMessage(message);
+        }
+    }
+
+    public Collection<ProxiedPlayer> getSubscribers(){
+        return subscribers.values();
+    }
+}
@@ -0,0 +1,40 @@
+package m0ttii.com.github.benchmark;
+
+import m0ttii.com.github.common.duration.Durations;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a template duration such as "1d12h", done once per template load,
+ * and turning the parsed duration into an expiry date, done for every punishment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurationBenchmark {
+
+    @Param({"30s", "12h", "1d12h", "1y 2w 3d", "permanent"})
+    public String duration;
+
+    private long parsed;
+
+    @Setup
+    public void setup() {
+        parsed = Durations.parse(duration);
+    }
+
+    @Benchmark
+    public long parse() {
+        return Durations.parse(duration);
+    }
+
+    @Benchmark
+    public Date expiryDate() {
+        return Durations.expiry(System.currentTimeMillis(), parsed);
+    }
+}
@@ -0,0 +1,37 @@
+package m0ttii.com.github.benchmark;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.mongodb.MongoClient;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import m0ttii.com.github.common.AbuseSystemCommon;
+import m0ttii.com.github.common.AbuseSystemConfig;
+
+import java.net.InetSocketAddress;
+
+/**
+ * In-memory Mongo stand-in for the benchmarks, wired up with the same Guice module the plugin uses.
+ */
+public final class EmbeddedMongo implements AutoCloseable {
+
+    private final MongoServer server;
+    private final Injector injector;
+
+    public EmbeddedMongo() {
+        this.server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        AbuseSystemConfig config = new AbuseSystemConfig(address.getHostString(), address.getPort(), "", "", "benchmark");
+        this.injector = Guice.createInjector(new AbuseSystemCommon(config));
+    }
+
+    public <T> T getInstance(Class<T> type) {
+        return injector.getInstance(type);
+    }
+
+    @Override
+    public void close() {
+        injector.getInstance(MongoClient.class).close();
+        server.shutdownNow();
+    }
+}
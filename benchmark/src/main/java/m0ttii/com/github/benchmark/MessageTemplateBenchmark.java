@@ -0,0 +1,33 @@
+package m0ttii.com.github.benchmark;
+
+import m0ttii.com.github.common.message.MessageTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures placeholder rendering of the kick and notify messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+    private MessageTemplate template;
+    private Date expireAt;
+
+    @Setup
+    public void setup() {
+        template = MessageTemplate.compile("§cDu wurdest von %punisher gebannt.\n§7Grund: §e%reason\n§7Spieler: §e%player\n§7Bis: §e%date");
+        expireAt = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30));
+    }
+
+    @Benchmark
+    public String render() {
+        return template.render("Notch", "Hacking", "M0ttii", MessageTemplate.formatDate(expireAt));
+    }
+}
@@ -0,0 +1,55 @@
+package m0ttii.com.github.benchmark;
+
+import m0ttii.com.github.abusesystem.redis.PunishmentCodec;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding of the punishment frames sent over Redis, binary and legacy JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PunishmentCodecBenchmark {
+
+    @Param({"false", "true"})
+    public boolean legacyJson;
+
+    private PunishmentCodec codec;
+    private AbuseSystemPunishment punishment;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        codec = new PunishmentCodec(legacyJson);
+        punishment = new AbuseSystemPunishment();
+        punishment.setId(new ObjectId());
+        punishment.setPlayer_uuid(UUID.randomUUID());
+        punishment.setPlayer_name("Notch");
+        punishment.setPunisher_uuid(UUID.randomUUID());
+        punishment.setPunisher_name("M0ttii");
+        punishment.setType(AbuseSystemType.BAN);
+        punishment.setReason("Hacking");
+        punishment.setExpire_at(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30)));
+        encoded = codec.encode(punishment);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(punishment);
+    }
+
+    @Benchmark
+    public AbuseSystemPunishment decode() {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,71 @@
+package m0ttii.com.github.benchmark;
+
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplate;
+import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplatePunishment;
+import m0ttii.com.github.common.repository.TemplateRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the template layer lookup done for every /punish, both from the template cache
+ * and with the template read from Mongo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateLadderBenchmark {
+
+    private static final String TEMPLATE = "hacking";
+
+    @Param({"4", "32"})
+    public int layers;
+
+    private EmbeddedMongo mongo;
+    private TemplateRepository templateRepository;
+
+    @Setup
+    public void setup() {
+        mongo = new EmbeddedMongo();
+        templateRepository = mongo.getInstance(TemplateRepository.class);
+
+        List<AbuseSystemTemplatePunishment> punishments = new ArrayList<>(layers);
+        for (int i = 0; i < layers; i++) {
+            AbuseSystemTemplatePunishment punishment = new AbuseSystemTemplatePunishment();
+            punishment.setType(i % 2 == 0 ? AbuseSystemType.MUTE : AbuseSystemType.BAN);
+            punishment.setReason("Hacking " + i);
+            punishment.setPointsNeeded(i * 5);
+            punishment.setPointsToAdd(5);
+            punishment.setExpire_after((i + 1) + "d");
+            punishments.add(punishment);
+        }
+        AbuseSystemTemplate template = new AbuseSystemTemplate();
+        template.setName(TEMPLATE);
+        template.setNumber(1);
+        template.setDifferentPunishmentTemplates(punishments);
+        templateRepository.save(template);
+        templateRepository.loadTemplates();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public AbuseSystemTemplatePunishment cachedLayer() {
+        return templateRepository.getTemplateByPlayerPoints(TEMPLATE, ThreadLocalRandom.current().nextInt(layers * 5));
+    }
+
+    @Benchmark
+    public AbuseSystemTemplate templateFromMongo() {
+        return templateRepository.getTemplateByName(TEMPLATE);
+    }
+}
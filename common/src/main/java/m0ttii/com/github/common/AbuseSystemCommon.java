@@ -3,12 +3,25 @@ package m0ttii.com.github.common;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
+import m0ttii.com.github.common.cache.ActivePunishmentCache;
+import m0ttii.com.github.common.cache.MuteCache;
+import m0ttii.com.github.common.cache.TemplateCache;
+import m0ttii.com.github.common.expiry.PunishmentExpiryScheduler;
+import m0ttii.com.github.common.provider.MongoPoolStatistics;
 import m0ttii.com.github.common.provider.MorphiaProvider;
+import m0ttii.com.github.common.repository.MessageRepository;
 import m0ttii.com.github.common.repository.PointRepository;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import m0ttii.com.github.common.repository.RepositoryExecutor;
+import m0ttii.com.github.common.repository.TemplateRepository;
 import m0ttii.com.github.common.repository.UserRepository;
+import m0ttii.com.github.common.repository.UserWriteBuffer;
 import xyz.morphia.Datastore;
 import xyz.morphia.Morphia;
 
@@ -22,22 +35,47 @@ public class AbuseSystemCommon extends AbstractModule {
     @Override
     protected void configure() {
 
+        bind(AbuseSystemConfig.class).toInstance(this.abuseSystemConfig);
         bind(Morphia.class).toProvider(MorphiaProvider.class).asEagerSingleton();
-        bind(PointRepository.class);
-        bind(UserRepository.class);
+        bind(PointRepository.class).in(Singleton.class);
+        bind(UserRepository.class).in(Singleton.class);
+        bind(PunishmentRepository.class).in(Singleton.class);
+        bind(TemplateRepository.class).in(Singleton.class);
+        bind(MessageRepository.class).in(Singleton.class);
+        bind(ActivePunishmentCache.class);
+        bind(TemplateCache.class);
+        bind(MuteCache.class);
+        bind(PunishmentExpiryScheduler.class);
+        bind(MongoPoolStatistics.class);
+        bind(RepositoryExecutor.class);
+        bind(UserWriteBuffer.class);
         //bind(PunishmentRepository.class).annotatedWith(Names.named(AbuseSystemConstants.AbuseSystem_DATASTORE));
     }
 
     @Provides
-    public MongoClient provideMongoClient() {
+    @Singleton
+    public MongoClient provideMongoClient(MongoPoolStatistics poolStatistics) {
         ServerAddress serverAddress = new ServerAddress(this.abuseSystemConfig.getDatabaseHost(), this.abuseSystemConfig.getDatabasePort());
 
+        MongoClientOptions options = MongoClientOptions.builder()
+                .connectionsPerHost(this.abuseSystemConfig.getConnectionsPerHost())
+                .minConnectionsPerHost(this.abuseSystemConfig.getMinConnectionsPerHost())
+                .threadsAllowedToBlockForConnectionMultiplier(this.abuseSystemConfig.getWaitQueueMultiplier())
+                .maxWaitTime(this.abuseSystemConfig.getMaxWaitTime())
+                .connectTimeout(this.abuseSystemConfig.getConnectTimeout())
+                .socketTimeout(this.abuseSystemConfig.getSocketTimeout())
+                .serverSelectionTimeout(this.abuseSystemConfig.getServerSelectionTimeout())
+                .readPreference(ReadPreference.valueOf(this.abuseSystemConfig.getReadPreference()))
+                .addConnectionPoolListener(poolStatistics)
+                .build();
+
         //MongoCredential credential = MongoCredential.createCredential(this.abuseSystemConfig.getDatabaseUser(), this.abuseSystemConfig.getDatabaseName(), this.abuseSystemConfig.getDatabasePassword().toCharArray());
 
-        return new MongoClient(serverAddress);//, Collections.singletonList(credential));
+        return new MongoClient(serverAddress, options);//, Collections.singletonList(credential));
     }
 
     @Provides
+    @Singleton
     @Named(AbuseSystemConstants.AbuseSystem_DATASTORE)
     public Datastore provideDatastore(MongoClient mongoClient, Morphia morphia) {
         Datastore datastore = morphia.createDatastore(mongoClient, this.abuseSystemConfig.getDatabaseName());
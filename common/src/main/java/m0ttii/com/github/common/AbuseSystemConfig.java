@@ -8,6 +8,22 @@ public class AbuseSystemConfig {
     private final String databasePassword;
     private final String databaseName;
 
+    private int connectionsPerHost = 20;
+    private int minConnectionsPerHost = 2;
+    private int waitQueueMultiplier = 5;
+    private int maxWaitTime = 5000;
+    private int connectTimeout = 5000;
+    private int socketTimeout = 10000;
+    private int serverSelectionTimeout = 5000;
+    private String readPreference = "primary";
+
+    private int repositoryThreads = 8;
+    private int repositoryQueueLimit = 256;
+
+    private boolean legacyJsonFrames = false;
+    private long broadcastWindowMillis = 50;
+    private int broadcastBatchSize = 100;
+
     public AbuseSystemConfig(String databaseHost, int databasePort, String databaseUser, String databasePassword, String databaseName) {
         this.databaseHost = databaseHost;
         this.databasePort = databasePort;
@@ -36,4 +52,108 @@ public class AbuseSystemConfig {
         return databaseName;
     }
 
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    public void setConnectionsPerHost(int connectionsPerHost) {
+        this.connectionsPerHost = connectionsPerHost;
+    }
+
+    public int getMinConnectionsPerHost() {
+        return minConnectionsPerHost;
+    }
+
+    public void setMinConnectionsPerHost(int minConnectionsPerHost) {
+        this.minConnectionsPerHost = minConnectionsPerHost;
+    }
+
+    public int getWaitQueueMultiplier() {
+        return waitQueueMultiplier;
+    }
+
+    public void setWaitQueueMultiplier(int waitQueueMultiplier) {
+        this.waitQueueMultiplier = waitQueueMultiplier;
+    }
+
+    public int getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void setMaxWaitTime(int maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    public int getServerSelectionTimeout() {
+        return serverSelectionTimeout;
+    }
+
+    public void setServerSelectionTimeout(int serverSelectionTimeout) {
+        this.serverSelectionTimeout = serverSelectionTimeout;
+    }
+
+    public String getReadPreference() {
+        return readPreference;
+    }
+
+    public void setReadPreference(String readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    public int getRepositoryThreads() {
+        return repositoryThreads;
+    }
+
+    public void setRepositoryThreads(int repositoryThreads) {
+        this.repositoryThreads = repositoryThreads;
+    }
+
+    public int getRepositoryQueueLimit() {
+        return repositoryQueueLimit;
+    }
+
+    public void setRepositoryQueueLimit(int repositoryQueueLimit) {
+        this.repositoryQueueLimit = repositoryQueueLimit;
+    }
+
+    public boolean isLegacyJsonFrames() {
+        return legacyJsonFrames;
+    }
+
+    public void setLegacyJsonFrames(boolean legacyJsonFrames) {
+        this.legacyJsonFrames = legacyJsonFrames;
+    }
+
+    public long getBroadcastWindowMillis() {
+        return broadcastWindowMillis;
+    }
+
+    public void setBroadcastWindowMillis(long broadcastWindowMillis) {
+        this.broadcastWindowMillis = broadcastWindowMillis;
+    }
+
+    public int getBroadcastBatchSize() {
+        return broadcastBatchSize;
+    }
+
+    public void setBroadcastBatchSize(int broadcastBatchSize) {
+        this.broadcastBatchSize = broadcastBatchSize;
+    }
+
 }
@@ -0,0 +1,100 @@
+package m0ttii.com.github.common.cache;
+
+import com.google.inject.Singleton;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the currently active bans and mutes, keyed by the punished player's UUID.
+ * Filled once on startup and kept current by punishment writes, so login checks need no database access.
+ */
+@Singleton
+public class ActivePunishmentCache {
+
+    private final Map<UUID, AbuseSystemPunishment> bans = new ConcurrentHashMap<>();
+    private final Map<UUID, AbuseSystemPunishment> mutes = new ConcurrentHashMap<>();
+
+    public void load(Collection<AbuseSystemPunishment> punishments){
+        bans.clear();
+        mutes.clear();
+        punishments.forEach(this::put);
+    }
+
+    public void put(AbuseSystemPunishment punishment){
+        Map<UUID, AbuseSystemPunishment> index = indexOf(punishment.getType());
+        if(index == null || punishment.getPlayer_uuid() == null || !punishment.isActive() || isExpired(punishment, System.currentTimeMillis())){
+            return;
+        }
+        index.put(punishment.getPlayer_uuid(), punishment);
+    }
+
+    public void remove(UUID player_uuid, AbuseSystemType type){
+        Map<UUID, AbuseSystemPunishment> index = indexOf(type);
+        if(index != null){
+            index.remove(player_uuid);
+        }
+    }
+
+    /**
+     * Removes the cached punishment of the player, but only if it still is the given punishment and not a newer one.
+     */
+    public void evict(UUID player_uuid, AbuseSystemType type, ObjectId id){
+        Map<UUID, AbuseSystemPunishment> index = indexOf(type);
+        if(index != null){
+            index.computeIfPresent(player_uuid, (uuid, punishment) -> id.equals(punishment.getId()) ? null : punishment);
+        }
+    }
+
+    public AbuseSystemPunishment getBan(UUID player_uuid){
+        return get(bans, player_uuid);
+    }
+
+    public AbuseSystemPunishment getMute(UUID player_uuid){
+        return get(mutes, player_uuid);
+    }
+
+    public boolean isBanned(UUID player_uuid){
+        return getBan(player_uuid) != null;
+    }
+
+    public boolean isMuted(UUID player_uuid){
+        return getMute(player_uuid) != null;
+    }
+
+    public int evictExpired(){
+        long now = System.currentTimeMillis();
+        int before = bans.size() + mutes.size();
+        bans.values().removeIf(punishment -> isExpired(punishment, now));
+        mutes.values().removeIf(punishment -> isExpired(punishment, now));
+        return before - (bans.size() + mutes.size());
+    }
+
+    private AbuseSystemPunishment get(Map<UUID, AbuseSystemPunishment> index, UUID player_uuid){
+        AbuseSystemPunishment punishment = index.get(player_uuid);
+        if(punishment != null && isExpired(punishment, System.currentTimeMillis())){
+            index.remove(player_uuid, punishment);
+            return null;
+        }
+        return punishment;
+    }
+
+    private Map<UUID, AbuseSystemPunishment> indexOf(AbuseSystemType type){
+        if(type == AbuseSystemType.BAN){
+            return bans;
+        }
+        if(type == AbuseSystemType.MUTE){
+            return mutes;
+        }
+        return null;
+    }
+
+    private static boolean isExpired(AbuseSystemPunishment punishment, long now){
+        return punishment.getExpire_at() != null && punishment.getExpire_at().getTime() <= now;
+    }
+}
@@ -0,0 +1,51 @@
+package m0ttii.com.github.common.cache;
+
+import com.google.inject.Singleton;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mute expiry of the players connected to this proxy in epoch millis, checked for every chat message.
+ * Expired mutes are dropped lazily on the next check.
+ */
+@Singleton
+public class MuteCache {
+
+    public static final long PERMANENT = Long.MAX_VALUE;
+
+    private final Map<UUID, Long> mutes = new ConcurrentHashMap<>();
+
+    public void put(AbuseSystemPunishment punishment){
+        if(punishment == null || punishment.getType() != AbuseSystemType.MUTE || !punishment.isActive()){
+            return;
+        }
+        long expireAt = punishment.getExpire_at() == null ? PERMANENT : punishment.getExpire_at().getTime();
+        if(expireAt > System.currentTimeMillis()){
+            mutes.merge(punishment.getPlayer_uuid(), expireAt, Math::max);
+        }
+    }
+
+    public void remove(UUID player_uuid){
+        mutes.remove(player_uuid);
+    }
+
+    public boolean isMuted(UUID player_uuid, long now){
+        Long expireAt = mutes.get(player_uuid);
+        if(expireAt == null){
+            return false;
+        }
+        if(now < expireAt){
+            return true;
+        }
+        mutes.remove(player_uuid, expireAt);
+        return false;
+    }
+
+    public int size(){
+        return mutes.size();
+    }
+}
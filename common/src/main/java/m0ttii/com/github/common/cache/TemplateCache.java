@@ -0,0 +1,99 @@
+package m0ttii.com.github.common.cache;
+
+import com.google.inject.Singleton;
+import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Compiled {@link TemplateLadder}s keyed by template name and number. Ladders are only rebuilt when a template changes.
+ * Also keeps the sorted template names used as punish reasons, for validation and tab completion.
+ */
+@Singleton
+public class TemplateCache {
+
+    private volatile Index index = new Index();
+    private volatile boolean loaded;
+
+    /**
+     * Builds a fresh index from the templates and swaps it in once the read completed,
+     * so concurrent lookups keep seeing the previous templates until then.
+     */
+    public void load(Iterable<AbuseSystemTemplate> templates){
+        Index fresh = new Index();
+        for (AbuseSystemTemplate template : templates) {
+            fresh.put(TemplateLadder.compile(template));
+        }
+        index = fresh;
+        loaded = true;
+    }
+
+    public boolean isLoaded(){
+        return loaded;
+    }
+
+    public TemplateLadder put(AbuseSystemTemplate template){
+        TemplateLadder ladder = TemplateLadder.compile(template);
+        index.put(ladder);
+        return ladder;
+    }
+
+    public List<String> getReasons(){
+        return index.reasonList;
+    }
+
+    public boolean isReason(String name){
+        return name != null && index.byName.containsKey(name);
+    }
+
+    /**
+     * @return the reasons starting with the given prefix, ignoring case
+     */
+    public Collection<String> getReasons(String prefix){
+        Index current = index;
+        if(prefix == null || prefix.isEmpty()){
+            return current.reasonList;
+        }
+        String from = prefix.toLowerCase(Locale.ROOT);
+        return current.reasons.subMap(from, true, from + Character.MAX_VALUE, false).values();
+    }
+
+    public TemplateLadder getByName(String name){
+        return index.byName.get(name);
+    }
+
+    public TemplateLadder getByNumber(int number){
+        return index.byNumber.get(number);
+    }
+
+    public Collection<TemplateLadder> getLadders(){
+        return index.byName.values();
+    }
+
+    private static final class Index {
+
+        private final Map<String, TemplateLadder> byName = new ConcurrentHashMap<>();
+        private final Map<Integer, TemplateLadder> byNumber = new ConcurrentHashMap<>();
+        private final NavigableMap<String, String> reasons = new ConcurrentSkipListMap<>();
+        private volatile List<String> reasonList = Collections.emptyList();
+
+        private void put(TemplateLadder ladder){
+            TemplateLadder previous = byNumber.put(ladder.getNumber(), ladder);
+            if(previous != null && !previous.getName().equals(ladder.getName())){
+                byName.remove(previous.getName(), previous);
+                reasons.remove(previous.getName().toLowerCase(Locale.ROOT));
+            }
+            byName.put(ladder.getName(), ladder);
+            reasons.put(ladder.getName().toLowerCase(Locale.ROOT), ladder.getName());
+            reasonList = Collections.unmodifiableList(new ArrayList<>(reasons.values()));
+        }
+    }
+}
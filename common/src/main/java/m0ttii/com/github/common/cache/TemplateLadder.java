@@ -0,0 +1,75 @@
+package m0ttii.com.github.common.cache;
+
+import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplate;
+import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplatePunishment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable view of a template's valid punishment layers, sorted by the points a player needs to reach them.
+ * Picking the layer for a point count is a binary search over a primitive array.
+ */
+public final class TemplateLadder {
+
+    private final AbuseSystemTemplate template;
+    private final int[] pointsNeeded;
+    private final AbuseSystemTemplatePunishment[] layers;
+
+    private TemplateLadder(AbuseSystemTemplate template, int[] pointsNeeded, AbuseSystemTemplatePunishment[] layers) {
+        this.template = template;
+        this.pointsNeeded = pointsNeeded;
+        this.layers = layers;
+    }
+
+    public static TemplateLadder compile(AbuseSystemTemplate template) {
+        List<AbuseSystemTemplatePunishment> sorted = template.getDifferentPunishmentTemplates() == null
+                ? new ArrayList<>() : new ArrayList<>(template.getDifferentPunishmentTemplates());
+        sorted.removeIf(layer -> !layer.isValid());
+        sorted.sort(Comparator.comparingInt(AbuseSystemTemplatePunishment::getPointsNeeded));
+
+        int[] pointsNeeded = new int[sorted.size()];
+        AbuseSystemTemplatePunishment[] layers = new AbuseSystemTemplatePunishment[sorted.size()];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = sorted.get(i);
+            pointsNeeded[i] = layers[i].getPointsNeeded();
+        }
+        return new TemplateLadder(template, pointsNeeded, layers);
+    }
+
+    public AbuseSystemTemplate getTemplate() {
+        return template;
+    }
+
+    public String getName() {
+        return template.getName();
+    }
+
+    public int getNumber() {
+        return template.getNumber();
+    }
+
+    public int size() {
+        return layers.length;
+    }
+
+    /**
+     * @return the highest layer the player has reached, the lowest layer if none is reached yet, or null if the template has no layers
+     */
+    public AbuseSystemTemplatePunishment getLayer(int playerPoints) {
+        if (layers.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(pointsNeeded, playerPoints);
+        if (index < 0) {
+            index = -index - 2;
+        } else {
+            while (index > 0 && pointsNeeded[index - 1] == playerPoints) {
+                index--;
+            }
+        }
+        return layers[Math.max(index, 0)];
+    }
+}
@@ -0,0 +1,110 @@
+package m0ttii.com.github.common.duration;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses template durations into milliseconds. A duration is one or more
+ * {@code <number><unit>} parts, optionally separated by spaces, e.g. {@code 30m}, {@code 1d12h} or {@code 1y 2w}.
+ * Units: s -> second, m -> minute, h -> hour, d -> day, w -> week, y -> year (365 days).
+ * {@code permanent}, {@code perm}, {@code -1}, an empty string and null are permanent.
+ */
+public final class Durations {
+
+    public static final long PERMANENT = -1L;
+
+    private static final long SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long WEEK = 7 * DAY;
+    private static final long YEAR = 365 * DAY;
+
+    private Durations() {
+    }
+
+    /**
+     * @return the duration in milliseconds or {@link #PERMANENT}
+     * @throws IllegalArgumentException if the duration is malformed
+     */
+    public static long parse(String duration) {
+        if (duration == null) {
+            return PERMANENT;
+        }
+        int start = 0;
+        int end = duration.length();
+        while (start < end && duration.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && duration.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end || isPermanent(duration, start, end)) {
+            return PERMANENT;
+        }
+
+        long total = 0;
+        long value = -1;
+        try {
+            for (int i = start; i < end; i++) {
+                char c = duration.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    value = Math.addExact(Math.multiplyExact(value < 0 ? 0 : value, 10), c - '0');
+                } else if (c == ' ') {
+                    if (value >= 0) {
+                        throw invalid(duration);
+                    }
+                } else {
+                    if (value < 0) {
+                        throw invalid(duration);
+                    }
+                    total = Math.addExact(total, Math.multiplyExact(value, unit(c, duration)));
+                    value = -1;
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Duration is too long: " + duration, e);
+        }
+        if (value >= 0) {
+            throw invalid(duration);
+        }
+        return total;
+    }
+
+    /**
+     * @return the expiry for a duration starting at {@code now}, null if the duration is permanent
+     */
+    public static Date expiry(long now, long duration) {
+        return duration == PERMANENT ? null : new Date(now + duration);
+    }
+
+    private static long unit(char unit, String duration) {
+        switch (unit) {
+            case 's':
+                return SECOND;
+            case 'm':
+                return MINUTE;
+            case 'h':
+                return HOUR;
+            case 'd':
+                return DAY;
+            case 'w':
+                return WEEK;
+            case 'y':
+                return YEAR;
+            default:
+                throw invalid(duration);
+        }
+    }
+
+    private static boolean isPermanent(String duration, int start, int end) {
+        int length = end - start;
+        return (length == 9 && duration.regionMatches(true, start, "permanent", 0, 9))
+                || (length == 4 && duration.regionMatches(true, start, "perm", 0, 4))
+                || (length == 2 && duration.regionMatches(start, "-1", 0, 2));
+    }
+
+    private static IllegalArgumentException invalid(String duration) {
+        return new IllegalArgumentException("Invalid duration: " + duration);
+    }
+}
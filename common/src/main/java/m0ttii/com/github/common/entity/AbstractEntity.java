@@ -14,8 +14,11 @@ import java.util.Date;
 public class AbstractEntity {
     @Id
     @Getter
+    @Setter
     private ObjectId id;
 
+    @Getter
+    @Setter
     private Date createdAt;
     private Date updatedAt;
 
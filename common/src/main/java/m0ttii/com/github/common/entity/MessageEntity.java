@@ -2,6 +2,7 @@ package m0ttii.com.github.common.entity;
 
 import lombok.*;
 import xyz.morphia.annotations.Entity;
+import xyz.morphia.annotations.Indexed;
 
 @Setter
 @Getter
@@ -10,6 +11,7 @@ import xyz.morphia.annotations.Entity;
 @ToString(callSuper = true)
 @Entity(value = "messages", noClassnameStored = true)
 public class MessageEntity extends AbstractEntity{
+    @Indexed
     private String name;
     private String message;
 }
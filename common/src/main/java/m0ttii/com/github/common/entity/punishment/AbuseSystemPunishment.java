@@ -3,22 +3,29 @@ package m0ttii.com.github.common.entity.punishment;
 import lombok.Getter;
 import lombok.Setter;
 import m0ttii.com.github.common.entity.AbstractEntity;
-import m0ttii.com.github.common.entity.user.AbuseSystemUser;
 import xyz.morphia.annotations.*;
+import xyz.morphia.utils.IndexType;
 
 import java.util.Date;
+import java.util.UUID;
 
 
 @Setter
 @Getter
 @Entity(value = "punishment", noClassnameStored = true)
+@Indexes({
+        @Index(fields = {@Field("player_uuid"), @Field("active"), @Field("expire_at")}),
+        @Index(fields = {@Field("active"), @Field("expire_at")}),
+        @Index(fields = {@Field("player_uuid"), @Field(value = "createdAt", type = IndexType.DESC), @Field(value = "_id", type = IndexType.DESC)})
+})
 public class AbuseSystemPunishment extends AbstractEntity {
-    @Reference
-    private AbuseSystemUser player_id;
-    @Reference
-    private AbuseSystemUser punisher_id;
+    private UUID player_uuid;
+    private String player_name;
+    private UUID punisher_uuid;
+    private String punisher_name;
     private AbuseSystemType type;
     private String reason;
     private String evidence;
+    private boolean active = true;
     private Date expire_at;
 }
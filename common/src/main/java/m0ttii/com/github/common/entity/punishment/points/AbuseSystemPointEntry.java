@@ -0,0 +1,21 @@
+package m0ttii.com.github.common.entity.punishment.points;
+
+import lombok.Getter;
+import lombok.Setter;
+import m0ttii.com.github.common.entity.AbstractEntity;
+import xyz.morphia.annotations.Entity;
+import xyz.morphia.annotations.Indexed;
+
+import java.util.Date;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity(value = "pointledger", noClassnameStored = true)
+public class AbuseSystemPointEntry extends AbstractEntity {
+    private UUID player;
+    private String template;
+    private int points;
+    @Indexed
+    private Date expire_at;
+}
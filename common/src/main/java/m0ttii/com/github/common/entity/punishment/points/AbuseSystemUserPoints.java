@@ -7,6 +7,7 @@ import m0ttii.com.github.common.entity.AbstractEntity;
 import m0ttii.com.github.common.entity.user.AbuseSystemUser;
 import xyz.morphia.annotations.Embedded;
 import xyz.morphia.annotations.Entity;
+import xyz.morphia.annotations.Indexed;
 import xyz.morphia.annotations.Reference;
 
 import java.lang.reflect.Array;
@@ -17,6 +18,7 @@ import java.util.UUID;
 @Setter
 @Entity(value = "punishpoints", noClassnameStored = true)
 public class AbuseSystemUserPoints extends AbstractEntity {
+    @Indexed(unique = true)
     private UUID player;
     @Embedded
     private List<AbuseSystemUserPointsTemplate> templates;
@@ -5,14 +5,21 @@ import lombok.Setter;
 import m0ttii.com.github.common.entity.AbstractEntity;
 import xyz.morphia.annotations.Embedded;
 import xyz.morphia.annotations.Entity;
+import xyz.morphia.annotations.Indexed;
+import xyz.morphia.annotations.PostLoad;
 import xyz.morphia.annotations.Reference;
 
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Getter
 @Setter
 @Entity(value = "templates", noClassnameStored = true)
 public class AbuseSystemTemplate extends AbstractEntity {
+
+    private static final Logger LOGGER = Logger.getLogger(AbuseSystemTemplate.class.getName());
+
     /*"_id":"",
    "number": 31,
    "name":"BOTS",
@@ -23,12 +30,30 @@ public class AbuseSystemTemplate extends AbstractEntity {
 
    student.grades = Arrays.asList(grade1, grade2);*/
 
+    @Indexed
     private int number;
+    @Indexed
     private String name;
     private String permission;
     private List<AbuseSystemTemplatePunishment> differentPunishmentTemplates;
 
-
-
-
+    /**
+     * Parses the durations of every step. A step with a malformed duration is logged and marked
+     * invalid instead of failing the whole query the template was loaded by.
+     */
+    @PostLoad
+    public void postLoad() {
+        if (differentPunishmentTemplates == null) {
+            return;
+        }
+        for (AbuseSystemTemplatePunishment punishment : differentPunishmentTemplates) {
+            try {
+                punishment.parseDurations();
+            } catch (IllegalArgumentException e) {
+                punishment.markInvalid();
+                LOGGER.log(Level.WARNING, "Skipping step of template " + name + " (#" + number + ") at "
+                        + punishment.getPointsNeeded() + " points: " + e.getMessage());
+            }
+        }
+    }
 }
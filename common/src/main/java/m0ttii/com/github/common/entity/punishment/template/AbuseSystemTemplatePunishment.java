@@ -1,10 +1,13 @@
 package m0ttii.com.github.common.entity.punishment.template;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import m0ttii.com.github.common.duration.Durations;
 import m0ttii.com.github.common.entity.AbstractEntity;
 import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
 import xyz.morphia.annotations.Embedded;
+import xyz.morphia.annotations.Transient;
 
 @Getter
 @Setter
@@ -20,9 +23,44 @@ public class AbuseSystemTemplatePunishment extends AbstractEntity {
     private int pointsNeeded;
     private int pointsToAdd;
     private AbuseSystemType type;
-    private String expire_after; //Formats: s -> second, m -> minute, h -> hour, y -> year
+    private String expire_after; //Formats: see Durations, a.e. 30m, 1d12h, 1y, permanent
     private String points_expire; //Same ^^
     private Boolean evidence_needed;
     private String reason;
 
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private long expireAfterMillis = Durations.PERMANENT;
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private long pointsExpireMillis = Durations.PERMANENT;
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private boolean valid = true;
+
+    public void setExpire_after(String expire_after) {
+        this.expireAfterMillis = Durations.parse(expire_after);
+        this.expire_after = expire_after;
+    }
+
+    public void setPoints_expire(String points_expire) {
+        this.pointsExpireMillis = Durations.parse(points_expire);
+        this.points_expire = points_expire;
+    }
+
+    /**
+     * Parses the stored durations, called once when the template is loaded from Mongo.
+     */
+    void parseDurations() {
+        this.expireAfterMillis = Durations.parse(expire_after);
+        this.pointsExpireMillis = Durations.parse(points_expire);
+        this.valid = true;
+    }
+
+    /**
+     * Marks the step as unusable because one of its stored durations could not be parsed.
+     */
+    void markInvalid() {
+        this.valid = false;
+    }
 }
@@ -7,6 +7,7 @@ import xyz.morphia.annotations.Indexed;
 import xyz.morphia.annotations.Property;
 
 import java.util.Date;
+import java.util.Locale;
 import java.util.UUID;
 
 @Setter
@@ -20,8 +21,15 @@ public class AbuseSystemUser extends AbstractEntity {
     private UUID uuid;
 
     private String latestName;
+    @Indexed
+    private String latestNameLower;
     private boolean notify;
 
     @Property("latest_offer")
     private Date latestOffer;
+
+    public void setLatestName(String latestName) {
+        this.latestName = latestName;
+        this.latestNameLower = latestName == null ? null : latestName.toLowerCase(Locale.ROOT);
+    }
 }
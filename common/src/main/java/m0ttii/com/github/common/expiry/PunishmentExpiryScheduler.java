@@ -0,0 +1,126 @@
+package m0ttii.com.github.common.expiry;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import m0ttii.com.github.common.cache.ActivePunishmentCache;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deactivates temporary bans and mutes once they expire.
+ * Upcoming expiries are kept in a min-heap on expire_at, {@link #tick()} pops everything that is due,
+ * flips it to inactive with batched updates and evicts it from the {@link ActivePunishmentCache}.
+ * Only the expiries within the next {@link #HORIZON} are loaded from the database, the window is reloaded periodically.
+ */
+@Singleton
+public class PunishmentExpiryScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(PunishmentExpiryScheduler.class.getName());
+
+    public static final long HORIZON = 60 * 60 * 1000L;
+    private static final int BATCH_SIZE = 500;
+
+    @Inject private PunishmentRepository punishmentRepository;
+    @Inject private ActivePunishmentCache activePunishmentCache;
+
+    private final PriorityQueue<Expiry> queue = new PriorityQueue<>();
+    private final Map<ObjectId, Expiry> scheduled = new ConcurrentHashMap<>();
+    private volatile long nextReload;
+
+    public void schedule(AbuseSystemPunishment punishment){
+        if(punishment.getId() == null || punishment.getPlayer_uuid() == null || punishment.getExpire_at() == null || !punishment.isActive()){
+            return;
+        }
+        Expiry expiry = new Expiry(punishment.getId(), punishment.getPlayer_uuid(), punishment.getType(), punishment.getExpire_at().getTime());
+        if(scheduled.putIfAbsent(expiry.id, expiry) == null){
+            synchronized (queue){
+                queue.add(expiry);
+            }
+        }
+    }
+
+    public void reload(){
+        long now = System.currentTimeMillis();
+        punishmentRepository.getActivePunishmentsExpiringBefore(now + HORIZON).forEach(this::schedule);
+        nextReload = now + HORIZON / 2;
+    }
+
+    /**
+     * @return the number of punishments that were deactivated
+     */
+    public int tick(){
+        long now = System.currentTimeMillis();
+        if(now >= nextReload){
+            reload();
+        }
+
+        List<Expiry> due = new ArrayList<>();
+        synchronized (queue){
+            while(!queue.isEmpty() && queue.peek().expireAt <= now){
+                due.add(queue.poll());
+            }
+        }
+        if(due.isEmpty()){
+            return 0;
+        }
+
+        int deactivated = 0;
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            List<Expiry> batch = due.subList(from, Math.min(from + BATCH_SIZE, due.size()));
+            List<ObjectId> ids = new ArrayList<>(batch.size());
+            batch.forEach(expiry -> ids.add(expiry.id));
+            try {
+                punishmentRepository.deactivate(ids);
+            } catch (RuntimeException e) {
+                // the failed batch and all later ones stay scheduled and are retried on the next tick
+                List<Expiry> remaining = due.subList(from, due.size());
+                synchronized (queue){
+                    queue.addAll(remaining);
+                }
+                LOGGER.log(Level.WARNING, "Could not deactivate " + remaining.size() + " expired punishments, retrying", e);
+                break;
+            }
+            for (Expiry expiry : batch) {
+                activePunishmentCache.evict(expiry.player_uuid, expiry.type, expiry.id);
+                scheduled.remove(expiry.id);
+            }
+            deactivated += batch.size();
+        }
+        LOGGER.fine("Deactivated " + deactivated + " expired punishments");
+        return deactivated;
+    }
+
+    public int size(){
+        return scheduled.size();
+    }
+
+    private static final class Expiry implements Comparable<Expiry> {
+        private final ObjectId id;
+        private final UUID player_uuid;
+        private final AbuseSystemType type;
+        private final long expireAt;
+
+        private Expiry(ObjectId id, UUID player_uuid, AbuseSystemType type, long expireAt) {
+            this.id = id;
+            this.player_uuid = player_uuid;
+            this.type = type;
+            this.expireAt = expireAt;
+        }
+
+        @Override
+        public int compareTo(Expiry other) {
+            return Long.compare(expireAt, other.expireAt);
+        }
+    }
+}
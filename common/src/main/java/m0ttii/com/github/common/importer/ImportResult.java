@@ -0,0 +1,47 @@
+package m0ttii.com.github.common.importer;
+
+/**
+ * Counts of a {@link LegacyBanImporter} run.
+ */
+public final class ImportResult {
+
+    private final int resumedAfter;
+    private final int read;
+    private final int skipped;
+    private final int written;
+
+    ImportResult(int resumedAfter, int read, int skipped, int written) {
+        this.resumedAfter = resumedAfter;
+        this.read = read;
+        this.skipped = skipped;
+        this.written = written;
+    }
+
+    /**
+     * @return the index of the last ban imported by a previous run, or -1 if the import started at the beginning
+     */
+    public int getResumedAfter() {
+        return resumedAfter;
+    }
+
+    public int getRead() {
+        return read;
+    }
+
+    /**
+     * @return the bans without UUID whose player name is unknown
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{resumedAfter=" + resumedAfter + ", read=" + read + ", skipped=" + skipped
+                + ", written=" + written + "}";
+    }
+}
@@ -0,0 +1,63 @@
+package m0ttii.com.github.common.importer;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * One ban read from a legacy ban file. {@code index} is the position of the ban in the file
+ * and is used for the checkpoint and the id of the imported punishment.
+ */
+public final class LegacyBan {
+
+    private final int index;
+    private final UUID uuid;
+    private final String name;
+    private final String source;
+    private final String reason;
+    private final Date created;
+    private final Date expires;
+
+    public LegacyBan(int index, UUID uuid, String name, String source, String reason, Date created, Date expires) {
+        this.index = index;
+        this.uuid = uuid;
+        this.name = name;
+        this.source = source;
+        this.reason = reason;
+        this.created = created;
+        this.expires = expires;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the UUID of the banned player, or null if the file only has the name
+     */
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    /**
+     * @return the expiry of the ban, or null if it is permanent
+     */
+    public Date getExpires() {
+        return expires;
+    }
+}
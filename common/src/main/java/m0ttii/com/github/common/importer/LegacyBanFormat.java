@@ -0,0 +1,156 @@
+package m0ttii.com.github.common.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Supported legacy ban files.
+ */
+public enum LegacyBanFormat {
+
+    /**
+     * Vanilla {@code banned-players.json}: an array of objects with
+     * {@code uuid}, {@code name}, {@code created}, {@code source}, {@code expires} and {@code reason}.
+     * Dates use the format {@code 2019-01-31 18:00:00 +0100}, {@code expires} may be {@code forever}.
+     */
+    VANILLA_JSON {
+        @Override
+        public LegacyBanReader open(Path file) throws IOException {
+            JsonParser parser = JSON_FACTORY.createParser(file.toFile());
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                throw new IOException("Expected a JSON array in " + file);
+            }
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.ROOT);
+            return new LegacyBanReader() {
+                private int index;
+
+                @Override
+                public LegacyBan next() throws IOException {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY || token == null) {
+                        return null;
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IOException("Expected a ban object at " + parser.getCurrentLocation());
+                    }
+                    String uuid = null, name = null, source = null, reason = null, created = null, expires = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        parser.nextToken();
+                        switch (field) {
+                            case "uuid":
+                                uuid = parser.getValueAsString();
+                                break;
+                            case "name":
+                                name = parser.getValueAsString();
+                                break;
+                            case "source":
+                                source = parser.getValueAsString();
+                                break;
+                            case "reason":
+                                reason = parser.getValueAsString();
+                                break;
+                            case "created":
+                                created = parser.getValueAsString();
+                                break;
+                            case "expires":
+                                expires = parser.getValueAsString();
+                                break;
+                            default:
+                                parser.skipChildren();
+                        }
+                    }
+                    return new LegacyBan(index++, parseUuid(uuid), name, source, reason,
+                            parseDate(dateFormat, created), parseDate(dateFormat, expires));
+                }
+
+                @Override
+                public void close() throws IOException {
+                    parser.close();
+                }
+            };
+        }
+    },
+
+    /**
+     * Flat file with one ban per line: {@code uuid|name|reason|source|created|expires}.
+     * {@code uuid} may be empty, {@code created} and {@code expires} are epoch millis,
+     * {@code expires} may be {@code -1} or {@code forever}. Empty lines and lines starting with {@code #} are skipped.
+     */
+    FLAT_FILE {
+        @Override
+        public LegacyBanReader open(Path file) throws IOException {
+            BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            return new LegacyBanReader() {
+                private int index;
+                private int line;
+
+                @Override
+                public LegacyBan next() throws IOException {
+                    String text;
+                    while ((text = reader.readLine()) != null) {
+                        line++;
+                        if (text.isEmpty() || text.charAt(0) == '#') {
+                            continue;
+                        }
+                        String[] columns = text.split("\\|", -1);
+                        if (columns.length != 6) {
+                            throw new IOException("Expected 6 columns in line " + line + " of " + file);
+                        }
+                        try {
+                            return new LegacyBan(index++, parseUuid(columns[0]), columns[1], columns[3], columns[2],
+                                    parseMillis(columns[4]), parseMillis(columns[5]));
+                        } catch (IllegalArgumentException e) {
+                            throw new IOException("Malformed line " + line + " of " + file, e);
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        }
+    };
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public abstract LegacyBanReader open(Path file) throws IOException;
+
+    private static UUID parseUuid(String uuid) {
+        return uuid == null || uuid.isEmpty() ? null : UUID.fromString(uuid);
+    }
+
+    private static Date parseDate(SimpleDateFormat dateFormat, String date) throws IOException {
+        if (date == null || date.isEmpty() || date.equalsIgnoreCase("forever")) {
+            return null;
+        }
+        try {
+            return dateFormat.parse(date);
+        } catch (ParseException e) {
+            throw new IOException("Malformed date " + date, e);
+        }
+    }
+
+    private static Date parseMillis(String millis) {
+        if (millis.isEmpty() || millis.equals("-1") || millis.equalsIgnoreCase("forever")) {
+            return null;
+        }
+        return new Date(Long.parseLong(millis));
+    }
+}
@@ -0,0 +1,291 @@
+package m0ttii.com.github.common.importer;
+
+import com.google.inject.Inject;
+import com.mongodb.WriteConcern;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
+import m0ttii.com.github.common.repository.BulkWriteReport;
+import m0ttii.com.github.common.repository.PunishmentRepository;
+import m0ttii.com.github.common.repository.UserRepository;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Imports bans from legacy ban files as {@link AbuseSystemPunishment}s in three parallel stages:
+ * parsing streams the file into batches, resolution looks up or creates the banned users per batch,
+ * and writing upserts the punishments with bulk writes. The stages are connected by small bounded queues.
+ *
+ * <p>After every fully written batch the index of its last ban is stored in {@code <file>.checkpoint}
+ * together with a SHA-256 hash of the file, and a later run of the same file contents continues after it.
+ * A batch with failed writes stops the import without advancing the checkpoint, and the checkpoint is
+ * deleted once the whole file was imported. Punishment ids are derived from the file hash and the ban index,
+ * so a batch which is written again after an interruption does not create duplicates.</p>
+ */
+public class LegacyBanImporter {
+
+    private static final Logger LOGGER = Logger.getLogger(LegacyBanImporter.class.getName());
+    private static final int QUEUE_CAPACITY = 4;
+    private static final ParsedBatch PARSED_END = new ParsedBatch(Collections.emptyList(), -1);
+    private static final ResolvedBatch RESOLVED_END = new ResolvedBatch(Collections.emptyList(), -1);
+
+    @Inject private UserRepository userRepository;
+    @Inject private PunishmentRepository punishmentRepository;
+
+    /**
+     * @param published receives every written ban which is still active, so it can be announced to the other proxies
+     */
+    public ImportResult importBans(Path file, LegacyBanFormat format, int batchSize, Consumer<AbuseSystemPunishment> published) throws IOException {
+        Path checkpoint = file.resolveSibling(file.getFileName() + ".checkpoint");
+        String contentHash = hash(file);
+        int resumeAfter = readCheckpoint(checkpoint, contentHash);
+        int fileHash = (int) Long.parseLong(contentHash.substring(0, 8), 16);
+
+        BlockingQueue<ParsedBatch> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<ResolvedBatch> resolved = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicBoolean aborted = new AtomicBoolean();
+        int written = 0;
+
+        ExecutorService stages = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "AbuseSystem Import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<?> parser = stages.submit(() -> {
+                try (LegacyBanReader reader = format.open(file)) {
+                    parse(reader, resumeAfter, batchSize, parsed, read);
+                } finally {
+                    if (!aborted.get()) {
+                        parsed.put(PARSED_END);
+                    }
+                }
+                return null;
+            });
+            Future<?> resolver = stages.submit(() -> {
+                try {
+                    resolve(parsed, resolved, batchSize, fileHash, skipped);
+                } finally {
+                    if (!aborted.get()) {
+                        resolved.put(RESOLVED_END);
+                    }
+                }
+                return null;
+            });
+
+            ResolvedBatch batch;
+            while ((batch = resolved.take()) != RESOLVED_END) {
+                BulkWriteReport report = punishmentRepository.upsertAll(batch.punishments, batchSize, WriteConcern.ACKNOWLEDGED);
+                for (int i = 0; i < batch.punishments.size(); i++) {
+                    AbuseSystemPunishment punishment = batch.punishments.get(i);
+                    if (report.isSuccess(i)) {
+                        punishmentRepository.registerPunishment(punishment);
+                        if (punishment.isActive()) {
+                            published.accept(punishment);
+                        }
+                    } else {
+                        LOGGER.warning("Could not import ban of " + punishment.getPlayer_uuid() + ": " + report.getErrors().get(i));
+                    }
+                }
+                written += report.getSucceeded();
+                if (!report.getErrors().isEmpty()) {
+                    throw new IOException("Import of " + file + " stopped: " + report.getErrors().size()
+                            + " bans of the batch ending at " + batch.lastIndex + " could not be written");
+                }
+                writeCheckpoint(checkpoint, contentHash, batch.lastIndex);
+            }
+            resolver.get();
+            parser.get();
+            Files.deleteIfExists(checkpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import of " + file + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import of " + file + " failed", e.getCause());
+        } finally {
+            // stages still blocked on a full queue are interrupted and must not wait to hand over their end marker
+            aborted.set(true);
+            stages.shutdownNow();
+        }
+
+        ImportResult result = new ImportResult(resumeAfter, read.get(), skipped.get(), written);
+        LOGGER.info("Imported " + file + ": " + result);
+        return result;
+    }
+
+    private static void parse(LegacyBanReader reader, int resumeAfter, int batchSize, BlockingQueue<ParsedBatch> parsed, AtomicInteger read)
+            throws IOException, InterruptedException {
+        List<LegacyBan> bans = new ArrayList<>(batchSize);
+        LegacyBan ban;
+        while ((ban = reader.next()) != null) {
+            if (ban.getIndex() <= resumeAfter) {
+                continue;
+            }
+            read.incrementAndGet();
+            bans.add(ban);
+            if (bans.size() == batchSize) {
+                parsed.put(new ParsedBatch(bans, ban.getIndex()));
+                bans = new ArrayList<>(batchSize);
+            }
+        }
+        if (!bans.isEmpty()) {
+            parsed.put(new ParsedBatch(bans, bans.get(bans.size() - 1).getIndex()));
+        }
+    }
+
+    private void resolve(BlockingQueue<ParsedBatch> parsed, BlockingQueue<ResolvedBatch> resolved, int batchSize, int fileHash, AtomicInteger skipped)
+            throws InterruptedException {
+        ParsedBatch batch;
+        while ((batch = parsed.take()) != PARSED_END) {
+            List<String> unknownNames = new ArrayList<>();
+            for (LegacyBan ban : batch.bans) {
+                if (ban.getUuid() == null && ban.getName() != null) {
+                    unknownNames.add(ban.getName());
+                }
+            }
+            Map<String, UUID> uuidsByName = unknownNames.isEmpty()
+                    ? Collections.emptyMap() : userRepository.findUniqueIdsByLatestName(unknownNames);
+
+            Map<UUID, String> names = new HashMap<>(batch.bans.size() * 2);
+            List<LegacyBan> bans = new ArrayList<>(batch.bans.size());
+            List<UUID> uuids = new ArrayList<>(batch.bans.size());
+            for (LegacyBan ban : batch.bans) {
+                UUID uuid = ban.getUuid() != null ? ban.getUuid()
+                        : ban.getName() == null ? null : uuidsByName.get(ban.getName().toLowerCase(Locale.ROOT));
+                if (uuid == null) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                names.putIfAbsent(uuid, ban.getName() == null ? uuid.toString() : ban.getName());
+                bans.add(ban);
+                uuids.add(uuid);
+            }
+
+            Map<UUID, String> users = userRepository.resolveUsers(names, batchSize);
+            List<AbuseSystemPunishment> punishments = new ArrayList<>(bans.size());
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < bans.size(); i++) {
+                if (users.containsKey(uuids.get(i))) {
+                    punishments.add(toPunishment(bans.get(i), uuids.get(i), users.get(uuids.get(i)), fileHash, now));
+                }
+            }
+            resolved.put(new ResolvedBatch(punishments, batch.lastIndex));
+        }
+    }
+
+    private static AbuseSystemPunishment toPunishment(LegacyBan ban, UUID uuid, String name, int fileHash, long now) {
+        Date created = ban.getCreated() == null ? new Date(now) : ban.getCreated();
+        AbuseSystemPunishment punishment = new AbuseSystemPunishment();
+        punishment.setId(new ObjectId(ByteBuffer.allocate(12)
+                .putInt((int) (created.getTime() / 1000))
+                .putInt(fileHash)
+                .putInt(ban.getIndex())
+                .array()));
+        punishment.setPlayer_uuid(uuid);
+        punishment.setPlayer_name(name);
+        punishment.setPunisher_name(ban.getSource());
+        punishment.setType(AbuseSystemType.BAN);
+        punishment.setReason(ban.getReason());
+        punishment.setExpire_at(ban.getExpires());
+        punishment.setActive(ban.getExpires() == null || ban.getExpires().getTime() > now);
+        punishment.setCreatedAt(created);
+        return punishment;
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // only feeds the digest
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return the index of the last imported ban, or -1 if there is no checkpoint for the current file contents
+     */
+    private static int readCheckpoint(Path checkpoint, String contentHash) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return -1;
+        }
+        String[] value = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).trim().split(" ");
+        if (value.length != 2) {
+            throw new IOException("Malformed checkpoint " + checkpoint);
+        }
+        if (!value[0].equals(contentHash)) {
+            LOGGER.info("Ignoring " + checkpoint + ", it belongs to a different version of the file");
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed checkpoint " + checkpoint, e);
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpoint, String contentHash, int lastIndex) throws IOException {
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.write(temp, (contentHash + " " + lastIndex).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class ParsedBatch {
+        private final List<LegacyBan> bans;
+        private final int lastIndex;
+
+        private ParsedBatch(List<LegacyBan> bans, int lastIndex) {
+            this.bans = bans;
+            this.lastIndex = lastIndex;
+        }
+    }
+
+    private static final class ResolvedBatch {
+        private final List<AbuseSystemPunishment> punishments;
+        private final int lastIndex;
+
+        private ResolvedBatch(List<AbuseSystemPunishment> punishments, int lastIndex) {
+            this.punishments = punishments;
+            this.lastIndex = lastIndex;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package m0ttii.com.github.common.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the bans of a legacy ban file one at a time, without loading the file into memory.
+ */
+public interface LegacyBanReader extends Closeable {
+
+    /**
+     * @return the next ban, or null at the end of the file
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    LegacyBan next() throws IOException;
+}
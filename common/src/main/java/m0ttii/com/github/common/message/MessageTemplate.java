@@ -0,0 +1,108 @@
+package m0ttii.com.github.common.message;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A message compiled once into literal parts and placeholders, rendered in a single pass into a reused per-thread builder.
+ */
+public final class MessageTemplate {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm").withZone(ZoneId.systemDefault());
+    private static final String PERMANENT = "Permanent";
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    public enum Placeholder {
+        PLAYER("%player"), REASON("%reason"), PUNISHER("%punisher"), DATE("%date");
+
+        private final String key;
+
+        Placeholder(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final String message;
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+
+    private MessageTemplate(String message, String[] literals, Placeholder[] placeholders) {
+        this.message = message;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        int start = 0;
+        int index = message.indexOf('%');
+        while (index >= 0) {
+            Placeholder placeholder = placeholderAt(message, index);
+            if (placeholder == null) {
+                index = message.indexOf('%', index + 1);
+                continue;
+            }
+            literals.add(message.substring(start, index));
+            placeholders.add(placeholder);
+            start = index + placeholder.getKey().length();
+            index = message.indexOf('%', start);
+        }
+        literals.add(message.substring(start));
+        return new MessageTemplate(message, literals.toArray(new String[0]), placeholders.toArray(new Placeholder[0]));
+    }
+
+    public static String formatDate(Date date) {
+        return date == null ? PERMANENT : DATE_FORMAT.format(date.toInstant());
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String render(String player, String reason, String punisher, String date) {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        builder.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            switch (placeholders[i]) {
+                case PLAYER:
+                    append(builder, player);
+                    break;
+                case REASON:
+                    append(builder, reason);
+                    break;
+                case PUNISHER:
+                    append(builder, punisher);
+                    break;
+                case DATE:
+                    append(builder, date);
+                    break;
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String value) {
+        if (value != null) {
+            builder.append(value);
+        }
+    }
+
+    private static Placeholder placeholderAt(String message, int index) {
+        for (Placeholder placeholder : Placeholder.values()) {
+            if (message.startsWith(placeholder.getKey(), index)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,75 @@
+package m0ttii.com.github.common.provider;
+
+import com.google.inject.Singleton;
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolOpenedEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import com.mongodb.event.ConnectionRemovedEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the usage of the shared MongoClient connection pool, used to size the pool against the player count.
+ */
+@Singleton
+public class MongoPoolStatistics extends ConnectionPoolListenerAdapter {
+
+    private volatile int maxSize;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicInteger peakCheckedOut = new AtomicInteger();
+    private final AtomicInteger waitQueue = new AtomicInteger();
+    private final AtomicInteger peakWaitQueue = new AtomicInteger();
+
+    @Override
+    public void connectionPoolOpened(ConnectionPoolOpenedEvent event) {
+        this.maxSize = event.getSettings().getMaxSize();
+    }
+
+    @Override
+    public void connectionAdded(ConnectionAddedEvent event) {
+        connections.incrementAndGet();
+    }
+
+    @Override
+    public void connectionRemoved(ConnectionRemovedEvent event) {
+        connections.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        updatePeak(peakCheckedOut, checkedOut.incrementAndGet());
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    @Override
+    public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) {
+        updatePeak(peakWaitQueue, waitQueue.incrementAndGet());
+    }
+
+    @Override
+    public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) {
+        waitQueue.decrementAndGet();
+    }
+
+    public String report() {
+        return "MongoDB pool: " + connections.get() + "/" + maxSize + " connections open, "
+                + checkedOut.get() + " in use (peak " + peakCheckedOut.get() + "), "
+                + waitQueue.get() + " waiting (peak " + peakWaitQueue.get() + ")";
+    }
+
+    private static void updatePeak(AtomicInteger peak, int value) {
+        int current;
+        while (value > (current = peak.get()) && !peak.compareAndSet(current, value)) {
+            // retry until the peak is at least the observed value
+        }
+    }
+}
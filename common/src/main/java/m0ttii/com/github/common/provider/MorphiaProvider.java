@@ -22,6 +22,9 @@ public class MorphiaProvider implements Provider<Morphia> {
 
         new GuiceExtension(morphia, this.injector);
 
+        // entities live in sub packages, they have to be mapped upfront for ensureIndexes to see them
+        morphia.getMapper().getOptions().setMapSubPackages(true);
+
         morphia.mapPackage(AbuseSystemConstants.AbuseSystem_COMMON_MODEL_PACKAGE);
 
         return morphia;
@@ -0,0 +1,40 @@
+package m0ttii.com.github.common.repository;
+
+import xyz.morphia.query.Query;
+import xyz.morphia.query.UpdateOperations;
+
+/**
+ * One update of a bulk write, created from a repository query and update operations.
+ */
+public final class BulkUpdate<ValueType> {
+
+    private final Query<ValueType> query;
+    private final UpdateOperations<ValueType> operations;
+    private final boolean upsert;
+
+    private BulkUpdate(Query<ValueType> query, UpdateOperations<ValueType> operations, boolean upsert) {
+        this.query = query;
+        this.operations = operations;
+        this.upsert = upsert;
+    }
+
+    public static <ValueType> BulkUpdate<ValueType> update(Query<ValueType> query, UpdateOperations<ValueType> operations) {
+        return new BulkUpdate<>(query, operations, false);
+    }
+
+    public static <ValueType> BulkUpdate<ValueType> upsert(Query<ValueType> query, UpdateOperations<ValueType> operations) {
+        return new BulkUpdate<>(query, operations, true);
+    }
+
+    Query<ValueType> getQuery() {
+        return query;
+    }
+
+    UpdateOperations<ValueType> getOperations() {
+        return operations;
+    }
+
+    boolean isUpsert() {
+        return upsert;
+    }
+}
@@ -0,0 +1,75 @@
+package m0ttii.com.github.common.repository;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of a bulk write on a {@link Repository}. Items are identified by their index in the list passed to the write.
+ * With an unacknowledged write concern only errors thrown by the driver are reported and the counts stay 0.
+ */
+public class BulkWriteReport {
+
+    private final int size;
+    private final Map<Integer, String> errors = new TreeMap<>();
+    private int inserted;
+    private int matched;
+    private int modified;
+    private int upserted;
+
+    BulkWriteReport(int size) {
+        this.size = size;
+    }
+
+    void fail(int index, String message) {
+        errors.put(index, message);
+    }
+
+    void count(int inserted, int matched, int modified, int upserted) {
+        this.inserted += inserted;
+        this.matched += matched;
+        this.modified += modified;
+        this.upserted += upserted;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isSuccess(int index) {
+        return !errors.containsKey(index);
+    }
+
+    public int getSucceeded() {
+        return size - errors.size();
+    }
+
+    /**
+     * @return the error message of every failed item by its index
+     */
+    public Map<Integer, String> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getModified() {
+        return modified;
+    }
+
+    public int getUpserted() {
+        return upserted;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkWriteReport{size=" + size + ", failed=" + errors.size() + ", inserted=" + inserted
+                + ", matched=" + matched + ", modified=" + modified + ", upserted=" + upserted + "}";
+    }
+}
@@ -0,0 +1,54 @@
+package m0ttii.com.github.common.repository;
+
+import xyz.morphia.query.MorphiaIterator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Single-use iteration over a Mongo cursor which only keeps one batch on the heap.
+ * The cursor is closed once the last entity was read or on {@link #close()}, so breaking out
+ * of a try-with-resources loop early releases it as well.
+ */
+public class EntityStream<ValueType> implements Iterator<ValueType>, Iterable<ValueType>, AutoCloseable {
+
+    private final MorphiaIterator<ValueType, ValueType> cursor;
+    private boolean closed;
+
+    EntityStream(MorphiaIterator<ValueType, ValueType> cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!cursor.hasNext()) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public ValueType next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return cursor.next();
+    }
+
+    @Override
+    public Iterator<ValueType> iterator() {
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            cursor.close();
+        }
+    }
+}
@@ -2,20 +2,65 @@ package m0ttii.com.github.common.repository;
 
 import m0ttii.com.github.common.AbuseSystemConstants;
 import m0ttii.com.github.common.entity.MessageEntity;
+import m0ttii.com.github.common.message.MessageTemplate;
 import xyz.morphia.Datastore;
+import xyz.morphia.query.Query;
 
+import javax.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Named;
 
 public class MessageRepository extends Repository<MessageEntity> {
 
+    private static final int STREAM_BATCH_SIZE = 100;
+
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    @Inject
     protected MessageRepository(@Named(AbuseSystemConstants.AbuseSystem_DATASTORE) Datastore datastore) {
         super(MessageEntity.class, datastore);
     }
 
+    @Override
+    protected Map<String, Query<MessageEntity>> getQueryShapes() {
+        Map<String, Query<MessageEntity>> shapes = new LinkedHashMap<>();
+        shapes.put("getByName", this.createQuery().field("name").equal("name"));
+        return shapes;
+    }
+
     public String getByName(String name){
-        return this.createQuery()
-                .field("name")
-                .equal(name).get().getMessage();
+        MessageTemplate template = getTemplate(name);
+        return template == null ? null : template.getMessage();
+    }
+
+    public MessageTemplate getTemplate(String name){
+        MessageTemplate template = templates.get(name);
+        if(template == null){
+            MessageEntity messageEntity = this.createQuery()
+                    .field("name")
+                    .equal(name).get();
+            if(messageEntity == null){
+                return null;
+            }
+            template = MessageTemplate.compile(messageEntity.getMessage());
+            templates.putIfAbsent(name, template);
+        }
+        return template;
+    }
+
+    public void loadMessages(){
+        templates.clear();
+        forEach(STREAM_BATCH_SIZE, messageEntity -> {
+            templates.put(messageEntity.getName(), MessageTemplate.compile(messageEntity.getMessage()));
+            return true;
+        }, "name", "message");
+    }
+
+    public CompletableFuture<String> getByNameAsync(String name){
+        return async(() -> getByName(name));
     }
 
     public MessageEntity createMessage(String name, String message){
@@ -26,6 +71,7 @@ public class MessageRepository extends Repository<MessageEntity> {
         messageEntity.setName(name);
         messageEntity.setMessage(message);
         getDatastore().save(messageEntity);
+        templates.put(name, MessageTemplate.compile(message));
         return messageEntity;
     }
 }
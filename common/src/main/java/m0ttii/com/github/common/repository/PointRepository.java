@@ -4,18 +4,32 @@ import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.name.Named;
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoCommandException;
 import m0ttii.com.github.common.AbuseSystemConstants;
+import m0ttii.com.github.common.entity.punishment.points.AbuseSystemPointEntry;
 import m0ttii.com.github.common.entity.punishment.points.AbuseSystemUserPoints;
 import m0ttii.com.github.common.entity.punishment.points.AbuseSystemUserPointsTemplate;
 import m0ttii.com.github.common.entity.user.AbuseSystemUser;
+import org.bson.types.ObjectId;
 import xyz.morphia.Datastore;
+import xyz.morphia.FindAndModifyOptions;
+import xyz.morphia.query.FindOptions;
+import xyz.morphia.query.Query;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class PointRepository extends Repository<AbuseSystemUserPoints> {
 
+    private static final int DUPLICATE_KEY = 11000;
+
     @Inject private UserRepository userRepository;
 
     @Inject
@@ -29,61 +43,143 @@ public class PointRepository extends Repository<AbuseSystemUserPoints> {
                 .get();
     }
 
+    @Override
+    protected Map<String, Query<AbuseSystemUserPoints>> getQueryShapes() {
+        Map<String, Query<AbuseSystemUserPoints>> shapes = new LinkedHashMap<>();
+        shapes.put("findByUniqueId", this.createQuery().field("player").equal(UUID.randomUUID()));
+        return shapes;
+    }
+
     public Integer getPoints(UUID uuid, String template){
         AbuseSystemUserPoints repo = this.findByUniqueId(uuid);
-        for (AbuseSystemUserPointsTemplate abuseSystemUserPointsTemplate : repo.getTemplates()) {
-            if (abuseSystemUserPointsTemplate.getTemplate().equals(template)){
-                return abuseSystemUserPointsTemplate.getPoints();
-            }
-        }
-        return 0;
+        return repo == null ? 0 : pointsOf(repo, template);
     }
 
+    /**
+     * Atomically adds points to a template with a single $inc, or pushes the template entry if the player has none yet.
+     * The points document itself is upserted, so no prior read is needed.
+     *
+     * @return the new point total of the template
+     */
     public Integer addPoints(UUID uuid, String template, Integer points){
-        AbuseSystemUserPoints repo = this.findByUniqueId(uuid);
-        for (AbuseSystemUserPointsTemplate abuseSystemUserPointsTemplate : repo.getTemplates()) {
-            if (abuseSystemUserPointsTemplate.getTemplate().equals(template)){
-                abuseSystemUserPointsTemplate.setPoints(abuseSystemUserPointsTemplate.getPoints() + points);
-                getDatastore().save(repo);
-                return abuseSystemUserPointsTemplate.getPoints();
-            }
+        return addPoints(uuid, template, points, null);
+    }
+
+    /**
+     * Adds points like {@link #addPoints(UUID, String, Integer)} and records them in the point ledger,
+     * from where {@link #compactExpiredPoints(int)} takes them off the total again once they expire.
+     *
+     * @param expire_at the date the points expire, or null if they never expire
+     */
+    public Integer addPoints(UUID uuid, String template, Integer points, Date expire_at){
+        // the ledger entry is only written once the points were added, so it can never subtract points that were not added
+        Integer total = incrementPoints(uuid, template, points);
+        if(expire_at != null){
+            AbuseSystemPointEntry entry = new AbuseSystemPointEntry();
+            entry.setPlayer(uuid);
+            entry.setTemplate(template);
+            entry.setPoints(points);
+            entry.setExpire_at(expire_at);
+            getDatastore().save(entry);
+        }
+        return total;
+    }
+
+    private Integer incrementPoints(UUID uuid, String template, Integer points){
+        AbuseSystemUserPoints updated = getDatastore().findAndModify(
+                this.createQuery().field("player").equal(uuid).field("templates.template").equal(template),
+                this.createUpdateOperations().disableValidation().inc("templates.$.points", points),
+                new FindAndModifyOptions().returnNew(true));
+        if(updated != null){
+            return pointsOf(updated, template);
         }
-        AbuseSystemUserPointsTemplate template1 = new AbuseSystemUserPointsTemplate();
-        template1.setTemplate(template);
-        template1.setPoints(points);
-        repo.getTemplates().addAll(Arrays.asList(template1));
-        System.out.println("LOLOL");
-        getDatastore().save(repo);
-        return null;
 
+        AbuseSystemUserPointsTemplate entry = new AbuseSystemUserPointsTemplate();
+        entry.setTemplate(template);
+        entry.setPoints(points);
+        try {
+            updated = getDatastore().findAndModify(
+                    this.createQuery().field("player").equal(uuid).field("templates.template").notEqual(template),
+                    this.createUpdateOperations().push("templates", entry),
+                    new FindAndModifyOptions().returnNew(true).upsert(true));
+        } catch (MongoCommandException e) {
+            if(e.getErrorCode() != DUPLICATE_KEY){
+                throw e;
+            }
+            // another proxy created the entry in the meantime, the $inc path will find it now
+            return incrementPoints(uuid, template, points);
+        }
+        return pointsOf(updated, template);
     }
 
+    /**
+     * Atomically removes points from a template, but only if the player has at least that many points.
+     *
+     * @return the new point total of the template, or null if nothing was removed
+     */
     public Integer removePoints(UUID uuid, String template, Integer points){
-        AbuseSystemUserPoints repo = this.findByUniqueId(uuid);
-        for (AbuseSystemUserPointsTemplate abuseSystemUserPointsTemplate : repo.getTemplates()) {
-            if (abuseSystemUserPointsTemplate.getTemplate().equals(template)){
-                if(abuseSystemUserPointsTemplate.getPoints() != 0){
-                    if(!(points < abuseSystemUserPointsTemplate.getPoints())){
-                        abuseSystemUserPointsTemplate.setPoints(abuseSystemUserPointsTemplate.getPoints() + points);
-                        getDatastore().save(repo);
-                        return abuseSystemUserPointsTemplate.getPoints();
-                    }
-                }
-                return null;
+        Query<AbuseSystemUserPoints> query = this.createQuery().disableValidation()
+                .field("player").equal(uuid)
+                .filter("templates elem", new BasicDBObject("template", template)
+                        .append("points", new BasicDBObject("$gte", points)));
+        AbuseSystemUserPoints updated = getDatastore().findAndModify(query,
+                this.createUpdateOperations().disableValidation().inc("templates.$.points", -points),
+                new FindAndModifyOptions().returnNew(true));
+        return updated == null ? null : pointsOf(updated, template);
+    }
+
+    public CompletableFuture<Integer> getPointsAsync(UUID uuid, String template){
+        return async(() -> getPoints(uuid, template));
+    }
+
+    public CompletableFuture<Integer> addPointsAsync(UUID uuid, String template, Integer points){
+        return async(() -> addPoints(uuid, template, points));
+    }
+
+    public CompletableFuture<Integer> removePointsAsync(UUID uuid, String template, Integer points){
+        return async(() -> removePoints(uuid, template, points));
+    }
+
+    /**
+     * Takes one batch of expired ledger entries off the point totals. Every entry is deleted before its points
+     * are subtracted and only the proxy whose delete succeeded subtracts them, so several proxies can compact
+     * the same ledger concurrently and no entry is ever subtracted twice.
+     *
+     * @return the number of entries compacted by this call, smaller than the batch size once the ledger is clean
+     */
+    public int compactExpiredPoints(int batchSize){
+        List<ObjectId> ids = new ArrayList<>();
+        getDatastore().createQuery(AbuseSystemPointEntry.class)
+                .field("expire_at").lessThanOrEq(new Date())
+                .project("_id", true)
+                .asList(new FindOptions().limit(batchSize))
+                .forEach(entry -> ids.add(entry.getId()));
+
+        int compacted = 0;
+        for (ObjectId id : ids) {
+            AbuseSystemPointEntry entry = getDatastore().findAndDelete(
+                    getDatastore().createQuery(AbuseSystemPointEntry.class).field("_id").equal(id));
+            if(entry == null){
+                // already compacted by another proxy
+                continue;
             }
+            getDatastore().update(
+                    this.createQuery().field("player").equal(entry.getPlayer()).field("templates.template").equal(entry.getTemplate()),
+                    this.createUpdateOperations().disableValidation().inc("templates.$.points", -entry.getPoints()));
+            compacted++;
         }
-        return null;
+        return compacted;
     }
 
-    public void createRepo(UUID player_uuid){
-        System.out.println("DEBUG1");
-        AbuseSystemUserPoints repo = new AbuseSystemUserPoints();
-        repo.setPlayer(player_uuid);
-        AbuseSystemUserPointsTemplate template = new AbuseSystemUserPointsTemplate();
-        template.setTemplate("test");
-        template.setPoints(1);
-        repo.setTemplates(Arrays.asList(template));
-        getDatastore().save(repo);
+    private static Integer pointsOf(AbuseSystemUserPoints repo, String template){
+        if(repo.getTemplates() != null){
+            for (AbuseSystemUserPointsTemplate abuseSystemUserPointsTemplate : repo.getTemplates()) {
+                if (abuseSystemUserPointsTemplate.getTemplate().equals(template)){
+                    return abuseSystemUserPointsTemplate.getPoints();
+                }
+            }
+        }
+        return 0;
     }
 
 }
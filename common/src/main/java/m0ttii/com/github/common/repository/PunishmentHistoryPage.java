@@ -0,0 +1,53 @@
+package m0ttii.com.github.common.repository;
+
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import org.bson.types.ObjectId;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One page of a player's punishment history, newest first. Only the fields shown by /pinfo are loaded.
+ */
+public class PunishmentHistoryPage {
+
+    private final List<AbuseSystemPunishment> punishments;
+    private final Cursor next;
+
+    PunishmentHistoryPage(List<AbuseSystemPunishment> punishments, Cursor next) {
+        this.punishments = punishments;
+        this.next = next;
+    }
+
+    public List<AbuseSystemPunishment> getPunishments() {
+        return punishments;
+    }
+
+    /**
+     * @return the cursor of the next page, or null if this is the last page
+     */
+    public Cursor getNext() {
+        return next;
+    }
+
+    /**
+     * Position after the last punishment of a page, by creation time and id.
+     */
+    public static final class Cursor {
+        private final Date createdAt;
+        private final ObjectId id;
+
+        Cursor(Date createdAt, ObjectId id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public ObjectId getId() {
+            return id;
+        }
+    }
+}
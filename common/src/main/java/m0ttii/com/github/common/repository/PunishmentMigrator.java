@@ -0,0 +1,108 @@
+package m0ttii.com.github.common.repository;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import m0ttii.com.github.common.AbuseSystemConstants;
+import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
+import m0ttii.com.github.common.entity.user.AbuseSystemUser;
+import xyz.morphia.Datastore;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * One-shot migration of punishments that still reference their player and punisher as {@code users} DBRefs.
+ * The references are resolved in batches and replaced by the embedded UUIDs and names.
+ * A reference which cannot be resolved is kept, and a punishment without a resolvable player is deactivated.
+ * Migrated documents are skipped on the next run, so it is safe to run on every startup.
+ */
+public class PunishmentMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(PunishmentMigrator.class.getName());
+
+    private final Datastore datastore;
+
+    @Inject
+    public PunishmentMigrator(@Named(AbuseSystemConstants.AbuseSystem_DATASTORE) Datastore datastore) {
+        this.datastore = datastore;
+    }
+
+    public int migrate(int batchSize) {
+        DBCollection punishments = datastore.getCollection(AbuseSystemPunishment.class);
+        DBCollection users = datastore.getCollection(AbuseSystemUser.class);
+        DBObject pending = new BasicDBObject("player_uuid", new BasicDBObject("$exists", false));
+        DBObject referenceFields = new BasicDBObject("player_id", 1).append("punisher_id", 1);
+
+        int migrated = 0;
+        int orphaned = 0;
+        List<DBObject> batch;
+        while (!(batch = punishments.find(pending, referenceFields).limit(batchSize).toArray()).isEmpty()) {
+            Set<Object> userIds = new HashSet<>();
+            for (DBObject punishment : batch) {
+                addId(userIds, punishment.get("player_id"));
+                addId(userIds, punishment.get("punisher_id"));
+            }
+
+            Map<Object, DBObject> usersById = new HashMap<>();
+            users.find(new BasicDBObject("_id", new BasicDBObject("$in", userIds)), new BasicDBObject("uuid", 1).append("latestName", 1))
+                    .forEach(user -> usersById.put(user.get("_id"), user));
+
+            BulkWriteOperation bulk = punishments.initializeUnorderedBulkOperation();
+            for (DBObject punishment : batch) {
+                DBObject player = usersById.get(idOf(punishment.get("player_id")));
+                DBObject punisher = usersById.get(idOf(punishment.get("punisher_id")));
+                // an unresolvable player is still migrated to null, otherwise the document would be picked up forever,
+                // but the punishment can no longer be enforced and its reference is kept for a manual repair
+                BasicDBObject set = new BasicDBObject("player_uuid", player == null ? null : player.get("uuid"))
+                        .append("player_name", player == null ? null : player.get("latestName"))
+                        .append("punisher_uuid", punisher == null ? null : punisher.get("uuid"))
+                        .append("punisher_name", punisher == null ? null : punisher.get("latestName"));
+                BasicDBObject unset = new BasicDBObject();
+                if (player == null) {
+                    set.append("active", false);
+                    orphaned++;
+                } else {
+                    unset.append("player_id", "");
+                }
+                if (punisher != null) {
+                    unset.append("punisher_id", "");
+                }
+                BasicDBObject update = new BasicDBObject("$set", set);
+                if (!unset.isEmpty()) {
+                    update.append("$unset", unset);
+                }
+                bulk.find(new BasicDBObject("_id", punishment.get("_id"))).updateOne(update);
+            }
+            bulk.execute();
+            migrated += batch.size();
+        }
+
+        if (migrated > 0) {
+            LOGGER.info("Migrated " + migrated + " punishments to embedded player UUIDs");
+        }
+        if (orphaned > 0) {
+            LOGGER.warning("Deactivated " + orphaned + " punishments whose player reference could not be resolved, player_id was kept");
+        }
+        return migrated;
+    }
+
+    private static void addId(Set<Object> ids, Object reference) {
+        Object id = idOf(reference);
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static Object idOf(Object reference) {
+        return reference instanceof DBRef ? ((DBRef) reference).getId() : reference;
+    }
+}
@@ -5,124 +5,250 @@ import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.name.Named;
 import m0ttii.com.github.common.AbuseSystemConstants;
+import m0ttii.com.github.common.cache.ActivePunishmentCache;
+import m0ttii.com.github.common.duration.Durations;
 import m0ttii.com.github.common.entity.punishment.AbuseSystemPunishment;
 import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
 import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplate;
+import m0ttii.com.github.common.expiry.PunishmentExpiryScheduler;
 import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplatePunishment;
 import m0ttii.com.github.common.entity.user.AbuseSystemUser;
 import org.bson.types.ObjectId;
 import xyz.morphia.Datastore;
+import xyz.morphia.query.FindOptions;
+import xyz.morphia.query.MorphiaIterator;
+import xyz.morphia.query.Query;
+import xyz.morphia.query.Sort;
 
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class PunishmentRepository extends Repository<AbuseSystemPunishment> {
 
+    private static final String[] HISTORY_FIELDS = {"type", "reason", "punisher_name", "active", "expire_at", "createdAt"};
+
     @Inject private UserRepository userRepository;
     @Inject private TemplateRepository templateRepository;
     @Inject private PointRepository pointRepository;
+    @Inject private ActivePunishmentCache activePunishmentCache;
+    @Inject private PunishmentExpiryScheduler punishmentExpiryScheduler;
+    @Inject private UserWriteBuffer userWriteBuffer;
 
     @Inject
     protected PunishmentRepository(@Named(AbuseSystemConstants.AbuseSystem_DATASTORE)Datastore datastore) {
         super(AbuseSystemPunishment.class, datastore);
     }
 
-    private Date getDate(String timeToAdd){
-        Date currentDate = new Date();
-
-        // convert date to calendar
-        Calendar c = Calendar.getInstance();
-        c.setTime(currentDate);
-        System.out.println(currentDate);
-
-        // manipulate date
-        String substring = timeToAdd.substring(timeToAdd.length() - 1);
-        String string = timeToAdd.substring(0, timeToAdd.length() - 1);
-        switch (substring){
-            case "s":
-                c.add(Calendar.SECOND, Integer.parseInt(string));
-            case "m":
-                c.add(Calendar.MINUTE, Integer.parseInt(string));
-            case "h":
-                c.add(Calendar.HOUR, Integer.parseInt(string));
-            case "d":
-                c.add(Calendar.DATE, Integer.parseInt(string));
-                System.out.println(Integer.parseInt(string));
-        }
-        Date currentDatePlusOne = c.getTime();
-        System.out.println(currentDatePlusOne);
-        return currentDatePlusOne;
-    }
-
-
     public AbuseSystemPunishment createPunishment(UUID player_uuid, UUID punisher_uuid, String reason){
         AbuseSystemPunishment punishment = new AbuseSystemPunishment();
-        AbuseSystemUser player = userRepository.findByUniqueId(player_uuid);
-        AbuseSystemTemplatePunishment usedTemplate = templateRepository.getTemplateByPlayerPoints(reason, pointRepository.getPoints(player_uuid, "reason"));
-        punishment.setPlayer_id(player);
-        punishment.setPunisher_id(userRepository.findByUniqueId(punisher_uuid));
+        AbuseSystemTemplatePunishment usedTemplate = templateRepository.getTemplateByPlayerPoints(reason, pointRepository.getPoints(player_uuid, reason));
+        setParticipants(punishment, player_uuid, punisher_uuid);
         punishment.setType(usedTemplate.getType());
         punishment.setReason(usedTemplate.getReason());
-        punishment.setExpire_at(getDate(usedTemplate.getExpire_after()));
-        pointRepository.addPoints(player_uuid, reason, usedTemplate.getPointsToAdd());
+        long now = System.currentTimeMillis();
+        punishment.setExpire_at(Durations.expiry(now, usedTemplate.getExpireAfterMillis()));
+        pointRepository.addPoints(player_uuid, reason, usedTemplate.getPointsToAdd(), Durations.expiry(now, usedTemplate.getPointsExpireMillis()));
         getDatastore().save(punishment);
-        System.out.println("Finish");
+        activePunishmentCache.put(punishment);
+        punishmentExpiryScheduler.schedule(punishment);
         return punishment;
     }
 
     public AbuseSystemPunishment createPunishment(UUID player_uuid, UUID punisher_uuid, AbuseSystemType type, String reason, Date expire_at){
         AbuseSystemPunishment punishment = new AbuseSystemPunishment();
-        punishment.setPlayer_id(userRepository.findByUniqueId(player_uuid));
-        punishment.setPunisher_id(userRepository.findByUniqueId(punisher_uuid));
+        setParticipants(punishment, player_uuid, punisher_uuid);
         punishment.setType(type);
         punishment.setReason(reason);
         punishment.setExpire_at(expire_at);
         getDatastore().save(punishment);
+        activePunishmentCache.put(punishment);
+        punishmentExpiryScheduler.schedule(punishment);
         return punishment;
     }
 
     public AbuseSystemPunishment createPunishment(UUID player_uuid, UUID punisher_uuid, AbuseSystemType type, String reason, String evidence, Date expire_at){
         AbuseSystemPunishment punishment = new AbuseSystemPunishment();
-        punishment.setPlayer_id(userRepository.findByUniqueId(player_uuid));
-        punishment.setPunisher_id(userRepository.findByUniqueId(punisher_uuid));
+        setParticipants(punishment, player_uuid, punisher_uuid);
         punishment.setType(type);
         punishment.setReason(reason);
         punishment.setEvidence(evidence);
         punishment.setExpire_at(expire_at);
         getDatastore().save(punishment);
+        activePunishmentCache.put(punishment);
+        punishmentExpiryScheduler.schedule(punishment);
         return punishment;
     }
 
-    public List<AbuseSystemPunishment> getPunishmentHistory(UUID player_uuid){
-        AbuseSystemUser player = userRepository.findByUniqueId(player_uuid);
-        return (List<AbuseSystemPunishment>) this.createQuery()
-                .field("player_id").equal(player)
-                .get();
+    private void setParticipants(AbuseSystemPunishment punishment, UUID player_uuid, UUID punisher_uuid){
+        punishment.setPlayer_uuid(player_uuid);
+        punishment.setPlayer_name(getLatestName(player_uuid));
+        punishment.setPunisher_uuid(punisher_uuid);
+        punishment.setPunisher_name(getLatestName(punisher_uuid));
+    }
+
+    private String getLatestName(UUID uuid){
+        String pendingName = userWriteBuffer.getPendingName(uuid);
+        if(pendingName != null){
+            return pendingName;
+        }
+        AbuseSystemUser user = userRepository.findByUniqueId(uuid);
+        return user == null ? null : user.getLatestName();
+    }
+
+    public CompletableFuture<AbuseSystemPunishment> createPunishmentAsync(UUID player_uuid, UUID punisher_uuid, String reason){
+        return async(() -> createPunishment(player_uuid, punisher_uuid, reason));
+    }
+
+    public CompletableFuture<AbuseSystemPunishment> createPunishmentAsync(UUID player_uuid, UUID punisher_uuid, AbuseSystemType type, String reason, String evidence, Date expire_at){
+        return async(() -> createPunishment(player_uuid, punisher_uuid, type, reason, evidence, expire_at));
+    }
+
+    public CompletableFuture<PunishmentHistoryPage> getPunishmentHistoryAsync(UUID player_uuid, PunishmentHistoryPage.Cursor after, int pageSize){
+        return async(() -> getPunishmentHistory(player_uuid, after, pageSize));
+    }
+
+    public CompletableFuture<AbuseSystemPunishment> getPunishmentByPlayerUUIDAsync(UUID player_uuid){
+        return async(() -> getPunishmentByPlayerUUID(player_uuid));
+    }
+
+    public CompletableFuture<Boolean> isBannedAsync(UUID player_uuid){
+        return async(() -> isBanned(player_uuid));
+    }
+
+    @Override
+    protected Map<String, Query<AbuseSystemPunishment>> getQueryShapes() {
+        UUID player = UUID.randomUUID();
+        Map<String, Query<AbuseSystemPunishment>> shapes = new LinkedHashMap<>();
+        shapes.put("byPlayer", byPlayer(player));
+        shapes.put("activeByPlayer", activeByPlayer(player));
+        shapes.put("history", history(player, new PunishmentHistoryPage.Cursor(new Date(), new ObjectId())));
+        return shapes;
+    }
+
+    private Query<AbuseSystemPunishment> byPlayer(UUID player_uuid){
+        return this.createQuery().field("player_uuid").equal(player_uuid);
+    }
+
+    private Query<AbuseSystemPunishment> activeByPlayer(UUID player_uuid){
+        Query<AbuseSystemPunishment> query = byPlayer(player_uuid);
+        query.field("active").notEqual(false);
+        query.or(
+                query.criteria("expire_at").equal(null),
+                query.criteria("expire_at").greaterThan(new Date())
+        );
+        return query;
+    }
+
+    private Query<AbuseSystemPunishment> history(UUID player_uuid, PunishmentHistoryPage.Cursor after){
+        Query<AbuseSystemPunishment> query = byPlayer(player_uuid);
+        if(after != null){
+            query.or(
+                    query.criteria("createdAt").lessThan(after.getCreatedAt()),
+                    query.and(
+                            query.criteria("createdAt").equal(after.getCreatedAt()),
+                            query.criteria("_id").lessThan(after.getId())));
+        }
+        for(String field : HISTORY_FIELDS){
+            query.project(field, true);
+        }
+        return query.order(Sort.descending("createdAt"), Sort.descending("_id"));
+    }
+
+    /**
+     * Loads one page of a player's punishments, newest first, with only the fields shown by /pinfo.
+     *
+     * @param after the cursor returned with the previous page, or null for the first page
+     */
+    public PunishmentHistoryPage getPunishmentHistory(UUID player_uuid, PunishmentHistoryPage.Cursor after, int pageSize){
+        List<AbuseSystemPunishment> punishments = new ArrayList<>(pageSize);
+        boolean more = false;
+        MorphiaIterator<AbuseSystemPunishment, AbuseSystemPunishment> iterator =
+                history(player_uuid, after).fetch(new FindOptions().limit(pageSize + 1).batchSize(pageSize + 1));
+        try {
+            while(iterator.hasNext()){
+                AbuseSystemPunishment punishment = iterator.next();
+                if(punishments.size() == pageSize){
+                    more = true;
+                    break;
+                }
+                punishments.add(punishment);
+            }
+        } finally {
+            iterator.close();
+        }
+        PunishmentHistoryPage.Cursor next = null;
+        if(more){
+            AbuseSystemPunishment last = punishments.get(punishments.size() - 1);
+            next = new PunishmentHistoryPage.Cursor(last.getCreatedAt(), last.getId());
+        }
+        return new PunishmentHistoryPage(punishments, next);
     }
 
     public AbuseSystemPunishment getPunishmentByPlayerUUID(UUID player_uuid){
-        AbuseSystemUser player = userRepository.findByUniqueId(player_uuid);
-        AbuseSystemPunishment punishment = this.createQuery()
-                .field("player_id").equal(player)
+        return activeByPlayer(player_uuid)
                 .get();
-        System.out.println(punishment);
-        if(punishment.getExpire_at().after(new Date())){
-            return punishment;
-        }
-        return null;
+    }
+
+    public List<AbuseSystemPunishment> getActivePunishments(){
+        Query<AbuseSystemPunishment> query = this.createQuery();
+        query.field("type").in(Arrays.asList(AbuseSystemType.BAN, AbuseSystemType.MUTE));
+        query.field("active").notEqual(false);
+        query.or(
+                query.criteria("expire_at").equal(null),
+                query.criteria("expire_at").greaterThan(new Date())
+        );
+        return query.asList();
+    }
+
+    public List<AbuseSystemPunishment> getActivePunishmentsExpiringBefore(long expireBefore){
+        return this.createQuery()
+                .field("active").notEqual(false)
+                .field("expire_at").lessThanOrEq(new Date(expireBefore))
+                .project("player_uuid", true)
+                .project("type", true)
+                .project("active", true)
+                .project("expire_at", true)
+                .asList();
+    }
+
+    public int deactivate(Collection<ObjectId> ids){
+        return getDatastore().update(
+                this.createQuery().field("_id").in(ids).field("active").notEqual(false),
+                this.createUpdateOperations().set("active", false)
+        ).getUpdatedCount();
+    }
+
+    public void loadActivePunishments(){
+        activePunishmentCache.load(getActivePunishments());
+    }
+
+    /**
+     * Tracks a punishment that was created elsewhere, e.g. on another proxy, in the active punishment cache and the expiry scheduler.
+     */
+    public void registerPunishment(AbuseSystemPunishment punishment){
+        activePunishmentCache.put(punishment);
+        punishmentExpiryScheduler.schedule(punishment);
+    }
+
+    public AbuseSystemPunishment getActiveBan(UUID player_uuid){
+        return activePunishmentCache.getBan(player_uuid);
+    }
+
+    public AbuseSystemPunishment getActiveMute(UUID player_uuid){
+        return activePunishmentCache.getMute(player_uuid);
     }
 
     public boolean isBanned(UUID player_uuid){
-        AbuseSystemUser player = userRepository.findByUniqueId(player_uuid);
-        AbuseSystemPunishment punishment = this.createQuery()
-                .field("player_id").equal(player)
-                .get();
-        if(punishment.getType().equals(AbuseSystemType.BAN)){
-            return true;
-        }
-        return false;
+        return activeByPlayer(player_uuid)
+                .field("type").equal(AbuseSystemType.BAN)
+                .get() != null;
     }
 
 
@@ -0,0 +1,72 @@
+package m0ttii.com.github.common.repository;
+
+import com.google.inject.Inject;
+import xyz.morphia.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs explain on every query shape of the repositories and reports the shapes that are answered by a collection scan.
+ */
+public class QueryPlanVerifier {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryPlanVerifier.class.getName());
+
+    private final List<Repository<?>> repositories;
+
+    @Inject
+    public QueryPlanVerifier(UserRepository userRepository, PunishmentRepository punishmentRepository, PointRepository pointRepository,
+                             TemplateRepository templateRepository, MessageRepository messageRepository) {
+        this.repositories = Arrays.asList(userRepository, punishmentRepository, pointRepository, templateRepository, messageRepository);
+    }
+
+    /**
+     * @return the names of all query shapes that fall back to a collection scan
+     */
+    public List<String> verify() {
+        List<String> collectionScans = new ArrayList<>();
+        for (Repository<?> repository : repositories) {
+            for (Map.Entry<String, ? extends Query<?>> shape : repository.getQueryShapes().entrySet()) {
+                String name = repository.getClass().getSimpleName() + "." + shape.getKey();
+                try {
+                    Object plan = shape.getValue().explain().get("queryPlanner");
+                    if (containsStage(plan, "COLLSCAN")) {
+                        LOGGER.warning(name + " is answered by a collection scan, check the indexes of its collection");
+                        collectionScans.add(name);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Could not explain " + name, e);
+                }
+            }
+        }
+        return collectionScans;
+    }
+
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) plan;
+            if (stage.equals(map.get("stage"))) {
+                return true;
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                // rejected plans may scan, only the winning plan is used
+                if (!"rejectedPlans".equals(entry.getKey()) && containsStage(entry.getValue(), stage)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof Collection) {
+            for (Object child : (Collection<?>) plan) {
+                if (containsStage(child, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,33 @@
 package m0ttii.com.github.common.repository;
 
+import com.google.inject.Inject;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteRequestBuilder;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
 import com.mongodb.WriteResult;
+import m0ttii.com.github.common.entity.AbstractEntity;
 import org.bson.types.ObjectId;
 import xyz.morphia.Datastore;
+import xyz.morphia.Morphia;
+import xyz.morphia.query.FindOptions;
 import xyz.morphia.query.Query;
+import xyz.morphia.query.UpdateOperations;
+import xyz.morphia.query.UpdateOpsImpl;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public abstract class Repository<ValueType> {
 
@@ -13,6 +35,9 @@ public abstract class Repository<ValueType> {
 
     private final Datastore datastore;
 
+    @Inject private RepositoryExecutor repositoryExecutor;
+    @Inject private Morphia morphia;
+
     protected Repository(Class<? extends ValueType> entityClazz, Datastore datastore) {
         this.entityClazz = entityClazz;
         this.datastore = datastore;
@@ -37,14 +62,169 @@ public abstract class Repository<ValueType> {
         return this.datastore.get(this.entityClazz, id);
     }
 
+    /**
+     * Loads the whole collection onto the heap. Prefer {@link #stream(int, String...)} or {@link #forEach(int, Predicate, String...)}.
+     */
+    @Deprecated
     public List<ValueType> findAll() {
         return this.createQuery().asList();
     }
 
+    /**
+     * Streams the whole collection in batches of {@code batchSize}. The stream has to be closed
+     * if it is not read to the end, best with try-with-resources.
+     *
+     * @param fields the fields to load, all fields if empty
+     */
+    public EntityStream<ValueType> stream(int batchSize, String... fields) {
+        return stream(this.createQuery(), batchSize, fields);
+    }
+
+    /**
+     * Passes every entity of the collection to {@code action} until it returns false.
+     *
+     * @return the number of entities passed to {@code action}
+     */
+    public int forEach(int batchSize, Predicate<? super ValueType> action, String... fields) {
+        int visited = 0;
+        try (EntityStream<ValueType> stream = stream(batchSize, fields)) {
+            for (ValueType value : stream) {
+                visited++;
+                if (!action.test(value)) {
+                    break;
+                }
+            }
+        }
+        return visited;
+    }
+
+    protected EntityStream<ValueType> stream(Query<ValueType> query, int batchSize, String... fields) {
+        for (String field : fields) {
+            query.project(field, true);
+        }
+        return new EntityStream<>(query.fetch(new FindOptions().batchSize(batchSize)));
+    }
+
+    /**
+     * Inserts the entities with unordered bulk writes of {@code batchSize} documents. Entities without an id get one assigned.
+     */
+    public BulkWriteReport insertAll(List<? extends ValueType> values, int batchSize, WriteConcern writeConcern) {
+        return bulkWrite(values, batchSize, writeConcern, (bulk, value) -> bulk.insert(toDBObject(value)));
+    }
+
+    /**
+     * Inserts or replaces the entities by their id with unordered bulk writes of {@code batchSize} documents.
+     */
+    public BulkWriteReport upsertAll(List<? extends ValueType> values, int batchSize, WriteConcern writeConcern) {
+        return bulkWrite(values, batchSize, writeConcern, (bulk, value) -> {
+            DBObject document = toDBObject(value);
+            bulk.find(new BasicDBObject("_id", document.get("_id"))).upsert().replaceOne(document);
+        });
+    }
+
+    /**
+     * Runs the updates with unordered bulk writes of {@code batchSize} updates. Each update changes at most one document.
+     */
+    public BulkWriteReport updateAll(List<BulkUpdate<ValueType>> updates, int batchSize, WriteConcern writeConcern) {
+        return bulkWrite(updates, batchSize, writeConcern, (bulk, update) -> {
+            BulkWriteRequestBuilder request = bulk.find(update.getQuery().getQueryObject());
+            DBObject operations = ((UpdateOpsImpl<ValueType>) update.getOperations()).getOps();
+            if (update.isUpsert()) {
+                request.upsert().updateOne(operations);
+            } else {
+                request.updateOne(operations);
+            }
+        });
+    }
+
+    private <T> BulkWriteReport bulkWrite(List<? extends T> items, int batchSize, WriteConcern writeConcern, BiConsumer<BulkWriteOperation, T> add) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        DBCollection collection = this.datastore.getCollection(this.entityClazz);
+        BulkWriteReport report = new BulkWriteReport(items.size());
+        for (int offset = 0; offset < items.size(); offset += batchSize) {
+            int end = Math.min(offset + batchSize, items.size());
+            BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+            for (int i = offset; i < end; i++) {
+                add.accept(bulk, items.get(i));
+            }
+            try {
+                count(report, bulk.execute(writeConcern));
+            } catch (BulkWriteException e) {
+                count(report, e.getWriteResult());
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    report.fail(offset + error.getIndex(), error.getMessage());
+                }
+                if (e.getWriteConcernError() != null) {
+                    // the writes were applied but not with the requested durability, so none of the chunk is safe
+                    for (int i = offset; i < end; i++) {
+                        if (report.isSuccess(i)) {
+                            report.fail(i, e.getWriteConcernError().getMessage());
+                        }
+                    }
+                }
+            } catch (MongoException e) {
+                for (int i = offset; i < end; i++) {
+                    report.fail(i, e.getMessage());
+                }
+            }
+        }
+        return report;
+    }
+
+    private static void count(BulkWriteReport report, BulkWriteResult result) {
+        if (result.isAcknowledged()) {
+            report.count(result.getInsertedCount(), result.getMatchedCount(), result.getModifiedCount(), result.getUpserts().size());
+        }
+    }
+
+    private DBObject toDBObject(ValueType value) {
+        if (value instanceof AbstractEntity) {
+            AbstractEntity entity = (AbstractEntity) value;
+            entity.preSave();
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId());
+            }
+        }
+        return this.morphia.toDBObject(value);
+    }
+
+    public CompletableFuture<ValueType> saveAsync(ValueType value) {
+        return async(() -> save(value));
+    }
+
+    public CompletableFuture<Boolean> deleteByIdAsync(ObjectId id) {
+        return async(() -> deleteById(id));
+    }
+
+    public CompletableFuture<ValueType> findByIdAsync(ObjectId id) {
+        return async(() -> findById(id));
+    }
+
+    public CompletableFuture<List<ValueType>> findAllAsync() {
+        return async(this::findAll);
+    }
+
+    /**
+     * @return sample queries of every query shape this repository runs, used by {@link QueryPlanVerifier}
+     */
+    protected Map<String, Query<ValueType>> getQueryShapes() {
+        return Collections.emptyMap();
+    }
+
+    protected <T> CompletableFuture<T> async(Supplier<T> task) {
+        return this.repositoryExecutor.submit(getClass(), task);
+    }
+
     Query<ValueType> createQuery() {
         return (Query<ValueType>) this.datastore.createQuery(this.entityClazz);
     }
 
+    UpdateOperations<ValueType> createUpdateOperations() {
+        return (UpdateOperations<ValueType>) this.datastore.createUpdateOperations(this.entityClazz);
+    }
+
     Query<ValueType> find(){
         return (Query<ValueType>) this.datastore.find(this.entityClazz);
     }
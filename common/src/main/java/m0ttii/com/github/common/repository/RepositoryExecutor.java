@@ -0,0 +1,83 @@
+package m0ttii.com.github.common.repository;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import m0ttii.com.github.common.AbuseSystemConfig;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded thread pool behind the asynchronous repository methods.
+ * Every repository may have at most {@link AbuseSystemConfig#getRepositoryQueueLimit()} tasks queued or running,
+ * further submissions fail fast with a {@link RejectedExecutionException} instead of blocking the caller.
+ */
+@Singleton
+public class RepositoryExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueLimit;
+    private final Map<Class<?>, Semaphore> permits = new ConcurrentHashMap<>();
+
+    @Inject
+    public RepositoryExecutor(AbuseSystemConfig config) {
+        this.queueLimit = config.getRepositoryQueueLimit();
+        this.executor = new ThreadPoolExecutor(config.getRepositoryThreads(), config.getRepositoryThreads(),
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new RepositoryThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> CompletableFuture<T> submit(Class<?> repository, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Semaphore semaphore = permits.computeIfAbsent(repository, key -> new Semaphore(queueLimit));
+        if (!semaphore.tryAcquire()) {
+            future.completeExceptionally(new RejectedExecutionException(repository.getSimpleName() + " has too many pending operations"));
+            return future;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                } finally {
+                    semaphore.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            semaphore.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public int getPending(Class<?> repository) {
+        Semaphore semaphore = permits.get(repository);
+        return semaphore == null ? 0 : queueLimit - semaphore.availablePermits();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class RepositoryThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "AbuseSystem Repository #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,16 +3,24 @@ package m0ttii.com.github.common.repository;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import m0ttii.com.github.common.AbuseSystemConstants;
+import m0ttii.com.github.common.cache.TemplateCache;
+import m0ttii.com.github.common.cache.TemplateLadder;
 import m0ttii.com.github.common.entity.punishment.AbuseSystemType;
 import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplate;
 import m0ttii.com.github.common.entity.punishment.template.AbuseSystemTemplatePunishment;
 import xyz.morphia.Datastore;
+import xyz.morphia.query.Query;
 import xyz.morphia.query.UpdateOperations;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class TemplateRepository extends Repository<AbuseSystemTemplate> {
 
+    private static final int STREAM_BATCH_SIZE = 100;
+
+    @Inject private TemplateCache templateCache;
+
     @Inject
     protected TemplateRepository(@Named(AbuseSystemConstants.AbuseSystem_DATASTORE)Datastore datastore) {
         super(AbuseSystemTemplate.class, datastore);
@@ -31,9 +39,18 @@ public class TemplateRepository extends Repository<AbuseSystemTemplate> {
         templatePunishment.setPointsNeeded(2);
         template.setDifferentPunishmentTemplates(Arrays.asList(templatePunishment));
         getDatastore().save(template);
+        templateCache.put(template);
         return template;
     }
 
+    @Override
+    protected Map<String, Query<AbuseSystemTemplate>> getQueryShapes() {
+        Map<String, Query<AbuseSystemTemplate>> shapes = new LinkedHashMap<>();
+        shapes.put("getTemplateById", this.createQuery().field("number").equal(0));
+        shapes.put("getTemplateByName", this.createQuery().field("name").equal("name"));
+        return shapes;
+    }
+
     public AbuseSystemTemplate getTemplateById(Integer id){
         return this.createQuery()
                 .field("number").equal(id)
@@ -47,44 +64,80 @@ public class TemplateRepository extends Repository<AbuseSystemTemplate> {
     }
 
     public List<String> getAviableReasons(){
-        List reasons = new ArrayList();
-        getTemplates().forEach(abuseSystemTemplate -> {
-            reasons.add(abuseSystemTemplate.getName());
-        });
-        return reasons;
+        if(!templateCache.isLoaded()){
+            loadTemplates();
+        }
+        return templateCache.getReasons();
+    }
+
+    public Collection<String> getAviableReasons(String prefix){
+        if(!templateCache.isLoaded()){
+            loadTemplates();
+        }
+        return templateCache.getReasons(prefix);
+    }
+
+    public boolean isAviableReason(String reason){
+        if(!templateCache.isLoaded()){
+            loadTemplates();
+        }
+        return templateCache.isReason(reason);
     }
 
     public List<AbuseSystemTemplate> getTemplates(){
-        return this.findAll();
+        List<AbuseSystemTemplate> templates = new ArrayList<>();
+        this.forEach(STREAM_BATCH_SIZE, templates::add);
+        return templates;
     }
 
     public void editTemplateById(Integer id, String field, String value){
         AbuseSystemTemplate query = getTemplateById(id);
         UpdateOperations operation = getDatastore().createUpdateOperations(AbuseSystemTemplate.class).set(field, value);
         getDatastore().update(query, operation);
+        AbuseSystemTemplate updated = getTemplateById(id);
+        if(updated != null){
+            templateCache.put(updated);
+        }
+    }
+
+    public void loadTemplates(){
+        try(EntityStream<AbuseSystemTemplate> templates = this.stream(STREAM_BATCH_SIZE)){
+            templateCache.load(templates);
+        }
+    }
+
+    public TemplateLadder getLadder(String templatename){
+        TemplateLadder ladder = templateCache.getByName(templatename);
+        if(ladder == null){
+            AbuseSystemTemplate template = this.getTemplateByName(templatename);
+            if(template == null){
+                return null;
+            }
+            ladder = templateCache.put(template);
+        }
+        return ladder;
     }
 
     public AbuseSystemTemplatePunishment getDifferentPTemplates(String templatename, Integer number){
-        AbuseSystemTemplate query = this.getTemplateByName(templatename);
-        return query.getDifferentPunishmentTemplates().get(number);
+        TemplateLadder ladder = this.getLadder(templatename);
+        return ladder == null ? null : ladder.getTemplate().getDifferentPunishmentTemplates().get(number);
+    }
+
+    public CompletableFuture<AbuseSystemTemplate> getTemplateByNameAsync(String name){
+        return async(() -> getTemplateByName(name));
+    }
+
+    public CompletableFuture<List<String>> getAviableReasonsAsync(){
+        return async(this::getAviableReasons);
+    }
+
+    public CompletableFuture<AbuseSystemTemplatePunishment> getTemplateByPlayerPointsAsync(String templatename, Integer playerpoints){
+        return async(() -> getTemplateByPlayerPoints(templatename, playerpoints));
     }
 
     public AbuseSystemTemplatePunishment getTemplateByPlayerPoints(String templatename, Integer playerpoints){
-        AbuseSystemTemplate query = this.getTemplateByName(templatename);
-        NavigableSet<Integer> set = new TreeSet<Integer>();
-        query.getDifferentPunishmentTemplates().forEach(abuseSystemTemplatePunishment -> {
-            set.add(abuseSystemTemplatePunishment.getPointsNeeded());
-        });
-        Integer nextpoints;
-        if(playerpoints < set.pollFirst()){
-            nextpoints = set.pollFirst();
-        }else{
-            nextpoints = set.floor(playerpoints);
-        }
-        return query.getDifferentPunishmentTemplates().stream()
-                .filter(abuseSystemTemplatePunishment -> abuseSystemTemplatePunishment.getPointsNeeded() == nextpoints)
-                .findFirst()
-                .orElse(null);
+        TemplateLadder ladder = this.getLadder(templatename);
+        return ladder == null ? null : ladder.getLayer(playerpoints == null ? 0 : playerpoints);
     }
 
 
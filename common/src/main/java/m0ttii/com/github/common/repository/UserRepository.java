@@ -3,18 +3,32 @@ package m0ttii.com.github.common.repository;
 
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import com.mongodb.WriteConcern;
 import m0ttii.com.github.common.AbuseSystemConstants;
 import m0ttii.com.github.common.entity.user.AbuseSystemUser;
 import xyz.morphia.Datastore;
 import xyz.morphia.converters.UUIDConverter;
-
-
+import xyz.morphia.query.Query;
+import xyz.morphia.query.UpdateOptions;
+import xyz.morphia.query.UpdateResults;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class UserRepository extends Repository<AbuseSystemUser> {
 
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
     @Inject private PunishmentRepository punishmentRepository;
-    @Inject private PointRepository pointRepository;
 
     @Inject
     protected UserRepository(@Named(AbuseSystemConstants.AbuseSystem_DATASTORE) Datastore datastore) {
@@ -30,10 +44,101 @@ public class UserRepository extends Repository<AbuseSystemUser> {
 
     public AbuseSystemUser findByLatestName(String name) {
         return this.createQuery()
-                .field("latestName").equal(name)
+                .field("latestNameLower").equal(name.toLowerCase(Locale.ROOT))
                 .get();
     }
 
+    public int backfillLatestNameLower() {
+        int updated = 0;
+        List<BulkUpdate<AbuseSystemUser>> updates = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        Query<AbuseSystemUser> query = this.createQuery().field("latestNameLower").doesNotExist().field("latestName").exists();
+        try (EntityStream<AbuseSystemUser> users = this.stream(query, BACKFILL_BATCH_SIZE, "latestName")) {
+            for (AbuseSystemUser user : users) {
+                updates.add(BulkUpdate.update(
+                        this.createQuery().field("_id").equal(user.getId()),
+                        this.createUpdateOperations().set("latestNameLower", user.getLatestName().toLowerCase(Locale.ROOT))));
+                if (updates.size() == BACKFILL_BATCH_SIZE) {
+                    updated += this.updateAll(updates, BACKFILL_BATCH_SIZE, WriteConcern.ACKNOWLEDGED).getSucceeded();
+                    updates.clear();
+                }
+            }
+        }
+        if (!updates.isEmpty()) {
+            updated += this.updateAll(updates, BACKFILL_BATCH_SIZE, WriteConcern.ACKNOWLEDGED).getSucceeded();
+        }
+        return updated;
+    }
+
+    @Override
+    protected Map<String, Query<AbuseSystemUser>> getQueryShapes() {
+        Map<String, Query<AbuseSystemUser>> shapes = new LinkedHashMap<>();
+        shapes.put("findByUniqueId", this.createQuery().field("uuid").equal(UUID.randomUUID()));
+        shapes.put("findByLatestName", this.createQuery().field("latestNameLower").equal("name"));
+        return shapes;
+    }
+
+
+    /**
+     * Looks up the users of the given UUIDs with one query and creates the missing ones with one bulk upsert.
+     *
+     * @param names the name to store for a user that does not exist yet, by UUID
+     * @param batchSize the bulk write batch size
+     * @return the latest name of every user that exists after the call, by UUID
+     */
+    public Map<UUID, String> resolveUsers(Map<UUID, String> names, int batchSize) {
+        Map<UUID, String> resolved = new HashMap<>(names.size() * 2);
+        for (AbuseSystemUser user : this.createQuery().field("uuid").in(names.keySet()).project("uuid", true).project("latestName", true).asList()) {
+            resolved.put(user.getUuid(), user.getLatestName());
+        }
+
+        List<UUID> missing = new ArrayList<>();
+        List<BulkUpdate<AbuseSystemUser>> upserts = new ArrayList<>();
+        Date now = new Date();
+        for (Map.Entry<UUID, String> entry : names.entrySet()) {
+            if (resolved.containsKey(entry.getKey())) {
+                continue;
+            }
+            missing.add(entry.getKey());
+            upserts.add(BulkUpdate.upsert(
+                    this.createQuery().field("uuid").equal(entry.getKey()),
+                    this.createUpdateOperations()
+                            .setOnInsert("latestName", entry.getValue())
+                            .setOnInsert("latestNameLower", entry.getValue().toLowerCase(Locale.ROOT))
+                            .setOnInsert("notify", false)
+                            .setOnInsert("createdAt", now)
+                            .set("updatedAt", now)));
+        }
+        if (!upserts.isEmpty()) {
+            BulkWriteReport report = this.updateAll(upserts, batchSize, WriteConcern.ACKNOWLEDGED);
+            for (int i = 0; i < missing.size(); i++) {
+                if (report.isSuccess(i)) {
+                    resolved.put(missing.get(i), names.get(missing.get(i)));
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * @return the UUIDs of the users with the given latest names, by lowercase name
+     */
+    public Map<String, UUID> findUniqueIdsByLatestName(Collection<String> names) {
+        List<String> lowerNames = new ArrayList<>(names.size());
+        names.forEach(name -> lowerNames.add(name.toLowerCase(Locale.ROOT)));
+        Map<String, UUID> uuids = new HashMap<>(names.size() * 2);
+        for (AbuseSystemUser user : this.createQuery().field("latestNameLower").in(lowerNames).project("uuid", true).project("latestNameLower", true).asList()) {
+            uuids.put(user.getLatestNameLower(), user.getUuid());
+        }
+        return uuids;
+    }
+
+    public CompletableFuture<AbuseSystemUser> findByUniqueIdAsync(UUID uuid) {
+        return async(() -> findByUniqueId(uuid));
+    }
+
+    public CompletableFuture<AbuseSystemUser> findByLatestNameAsync(String name) {
+        return async(() -> findByLatestName(name));
+    }
 
     /*public List<AbuseSystemPunishment> getPunishments() {
         return punishmentRepository.createQuery().
@@ -44,7 +149,6 @@ public class UserRepository extends Repository<AbuseSystemUser> {
         AbuseSystemUser user = new AbuseSystemUser();
         user.setUuid(UUID.fromString(latestName));
         user.setLatestName(latestName);
-        pointRepository.createRepo(UUID.fromString(latestName));
         getDatastore().save(user);
         return user;
     }
@@ -53,16 +157,31 @@ public class UserRepository extends Repository<AbuseSystemUser> {
         AbuseSystemUser user = new AbuseSystemUser();
         user.setUuid(uuid);
         user.setLatestName(latestName);
-        pointRepository.createRepo(uuid);
         getDatastore().save(user);
         return user;
     }
 
+    /**
+     * Upserts the flag, so a toggle before {@link UserWriteBuffer} created the user document is not lost.
+     */
+    public boolean setNotify(UUID uuid, boolean notify) {
+        Date date = new Date();
+        UpdateResults results = getDatastore().update(
+                this.createQuery().field("uuid").equal(uuid),
+                this.createUpdateOperations()
+                        .set("notify", notify)
+                        .set("updatedAt", date)
+                        .setOnInsert("createdAt", date),
+                new UpdateOptions().upsert(true));
+        return results.getUpdatedCount() + results.getInsertedCount() == 1;
+    }
 
+    public CompletableFuture<Boolean> setNotifyAsync(UUID uuid, boolean notify) {
+        return async(() -> setNotify(uuid, notify));
+    }
 
-
-
-
-
+    public CompletableFuture<AbuseSystemUser> createUserAsync(UUID uuid, String latestName) {
+        return async(() -> createUser(uuid, latestName));
+    }
 
 }
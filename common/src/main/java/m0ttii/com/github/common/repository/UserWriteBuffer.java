@@ -0,0 +1,127 @@
+package m0ttii.com.github.common.repository;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.mongodb.WriteConcern;
+import m0ttii.com.github.common.entity.user.AbuseSystemUser;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind buffer for the user documents touched on join. Joins only record the name and
+ * last-seen time; {@link #flush()} writes everything recorded since the last flush as unordered
+ * bulk upserts, so the user document is created lazily and a player joining several times
+ * between two flushes costs a single write.
+ *
+ * <p>A join produces a write only for a player not seen since the proxy started, a real name change,
+ * or when the last written last-seen time is older than {@link #LAST_SEEN_RESOLUTION}.</p>
+ */
+@Singleton
+public class UserWriteBuffer {
+
+    public static final long LAST_SEEN_RESOLUTION = TimeUnit.HOURS.toMillis(1);
+
+    private static final Logger LOGGER = Logger.getLogger(UserWriteBuffer.class.getName());
+    private static final int BATCH_SIZE = 500;
+
+    @Inject private UserRepository userRepository;
+
+    private final Map<UUID, PendingUser> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, PendingUser> written = new ConcurrentHashMap<>();
+
+    public void record(UUID uuid, String name){
+        long now = System.currentTimeMillis();
+        PendingUser last = written.get(uuid);
+        if(last != null && last.name.equals(name) && now - last.lastSeen < LAST_SEEN_RESOLUTION){
+            return;
+        }
+        pending.put(uuid, new PendingUser(uuid, name, now));
+    }
+
+    /**
+     * @return the name recorded for the player which is not written yet, or null
+     */
+    public String getPendingName(UUID uuid){
+        PendingUser user = pending.get(uuid);
+        return user == null ? null : user.name;
+    }
+
+    public boolean isKnown(UUID uuid){
+        return pending.containsKey(uuid) || written.containsKey(uuid);
+    }
+
+    public int getPending(){
+        return pending.size();
+    }
+
+    /**
+     * Upserts all recorded users in batches of {@link #BATCH_SIZE}.
+     *
+     * @return the number of users written
+     */
+    public int flush(){
+        long now = System.currentTimeMillis();
+        written.values().removeIf(user -> now - user.lastSeen >= LAST_SEEN_RESOLUTION);
+        if(pending.isEmpty()){
+            return 0;
+        }
+
+        List<PendingUser> batch = new ArrayList<>(pending.size());
+        List<BulkUpdate<AbuseSystemUser>> updates = new ArrayList<>(pending.size());
+        for(PendingUser user : pending.values()){
+            if(pending.remove(user.uuid, user)){
+                batch.add(user);
+                updates.add(toUpsert(user, now));
+            }
+        }
+
+        BulkWriteReport report = userRepository.updateAll(updates, BATCH_SIZE, WriteConcern.ACKNOWLEDGED);
+        for(int i = 0; i < batch.size(); i++){
+            PendingUser user = batch.get(i);
+            if(report.isSuccess(i)){
+                written.put(user.uuid, user);
+            }else{
+                pending.putIfAbsent(user.uuid, user);
+            }
+        }
+        if(!report.getErrors().isEmpty()){
+            LOGGER.log(Level.WARNING, "Could not write " + report.getErrors().size() + " users, retrying on the next flush: "
+                    + report.getErrors().values().iterator().next());
+        }
+        return report.getSucceeded();
+    }
+
+    private BulkUpdate<AbuseSystemUser> toUpsert(PendingUser user, long now){
+        Date date = new Date(now);
+        return BulkUpdate.upsert(
+                userRepository.createQuery().field("uuid").equal(user.uuid),
+                userRepository.createUpdateOperations()
+                        .set("latestName", user.name)
+                        .set("latestNameLower", user.name.toLowerCase(Locale.ROOT))
+                        .set("latestOffer", new Date(user.lastSeen))
+                        .set("updatedAt", date)
+                        .setOnInsert("notify", false)
+                        .setOnInsert("createdAt", date));
+    }
+
+    private static final class PendingUser {
+        private final UUID uuid;
+        private final String name;
+        private final long lastSeen;
+
+        private PendingUser(UUID uuid, String name, long lastSeen){
+            this.uuid = uuid;
+            this.name = name;
+            this.lastSeen = lastSeen;
+        }
+    }
+}